@@ -0,0 +1,103 @@
+package org.example.bank.benchmark;
+
+import org.example.bank.model.TimeOrderedUuid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batched primary key inserts of random (v4) against time-ordered (v7) ids, the shape of a bulk wallet creation.
+ * Runs on the embedded H2 by default; with {@code -p url=jdbc:postgresql://...} (and user, password) the trial
+ * also prints the primary key index size, where random keys leave half-empty pages behind their splits.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGenerationBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"random", "time-ordered"})
+    private String generator;
+
+    @Param({"jdbc:h2:mem:ids;DATABASE_TO_LOWER=TRUE"})
+    private String url;
+
+    @Param({"postgres"})
+    private String user;
+
+    @Param({"postgres"})
+    private String password;
+
+    private Connection connection;
+    private PreparedStatement insert;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists id_benchmark");
+            statement.execute("create table id_benchmark (id uuid primary key, balance bigint)");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement("insert into id_benchmark (id, balance) values (?, 0)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        if (url.startsWith("jdbc:postgresql:")) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(
+                         "select count(*), pg_relation_size('id_benchmark_pkey') from id_benchmark")) {
+                rs.next();
+                System.out.printf("%n%s: %d rows, primary key index %d KiB%n",
+                        generator, rs.getLong(1), rs.getLong(2) / 1024);
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table id_benchmark");
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] insertBatch() throws SQLException {
+        final boolean timeOrdered = generator.equals("time-ordered");
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            insert.setObject(1, timeOrdered ? TimeOrderedUuid.next() : UUID.randomUUID());
+            insert.addBatch();
+        }
+        final int[] counts = insert.executeBatch();
+        connection.commit();
+        return counts;
+    }
+
+    @Benchmark
+    public UUID generate() {
+        return generator.equals("time-ordered") ? TimeOrderedUuid.next() : UUID.randomUUID();
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.bank.benchmark;
+
+import org.example.bank.BankApplication;
+import org.example.bank.model.AccountView;
+import org.example.bank.model.Operation;
+import org.example.bank.model.OperationType;
+import org.example.bank.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service layer against the embedded H2, per operation engine. {@code accounts=1} puts every thread
+ * on the same row, larger values spread them so only the engine's own overhead is contended.
+ * With {@code -p url=jdbc:postgresql://...} (and user, password) the application runs against PostgreSQL,
+ * e.g. {@code -p mode=pessimistic,atomic-update} for the single-statement update returning the balance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OperationBenchmark {
+    private static final Duration MAX_STALENESS = Duration.ofSeconds(1);
+
+    @Param({"pessimistic", "group-commit", "atomic-update", "journal", "partitioned", "adaptive", "write-behind"})
+    private String mode;
+
+    @Param({"1", "1024"})
+    private int accounts;
+
+    /**
+     * Empty for the embedded H2.
+     */
+    @Param({""})
+    private String url;
+
+    @Param({"postgres"})
+    private String user;
+
+    @Param({"postgres"})
+    private String password;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private UUID[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final List<String> properties = new ArrayList<>(List.of("bank.operation.mode=" + mode,
+                "bank.admission.enabled=false",
+                // every trial gets a fresh in-memory database, its log must not outlive it
+                "bank.operation.write-behind.directory=target/wal/" + UUID.randomUUID(),
+                "logging.level.root=warn"));
+        if (!url.isEmpty()) {
+            properties.addAll(List.of("spring.datasource.url=" + url,
+                    "spring.datasource.driverClassName=org.postgresql.Driver",
+                    "spring.datasource.username=" + user,
+                    "spring.datasource.password=" + password,
+                    "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+                    "spring.jpa.hibernate.ddl-auto=none"));
+        }
+        context = new SpringApplicationBuilder(BankApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .run();
+        accountService = context.getBean(AccountService.class);
+        ids = new UUID[accounts];
+        for (int i = 0; i < accounts; i++) {
+            ids[i] = accountService.create().getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public AccountView makeOperation1() {
+        return deposit();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public AccountView makeOperation4() {
+        return deposit();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public AccountView makeOperation16() {
+        return deposit();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public AccountView getById() {
+        return accountService.getById(randomId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public AccountView getByIdCached() {
+        return accountService.getById(randomId(), MAX_STALENESS);
+    }
+
+    private AccountView deposit() {
+        return accountService.makeOperation(new Operation(randomId(), OperationType.DEPOSIT, 100));
+    }
+
+    private UUID randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
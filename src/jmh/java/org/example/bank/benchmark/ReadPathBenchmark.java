@@ -0,0 +1,91 @@
+package org.example.bank.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.bank.BankApplication;
+import org.example.bank.model.Account;
+import org.example.bank.model.Operation;
+import org.example.bank.model.OperationType;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /api/v1/wallet/{id} below the controller: load and serialize. {@code entity} is the managed entity path
+ * the service used to take, {@code projection} the current one. Run with {@code -prof gc} to compare allocation:
+ * mvn -P benchmark test-compile exec:exec -Djmh.args="ReadPathBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadPathBenchmark {
+    private static final int ACCOUNTS = 1024;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private AccountRepository repository;
+    private TransactionTemplate readOnlyTransaction;
+    private ObjectMapper objectMapper;
+    private UUID[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankApplication.class)
+                .properties("bank.admission.enabled=false",
+                        "logging.level.root=warn")
+                .run();
+        accountService = context.getBean(AccountService.class);
+        repository = context.getBean(AccountRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        ids = new UUID[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids[i] = accountService.create().getId();
+            accountService.makeOperation(new Operation(ids[i], OperationType.DEPOSIT, 2050));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entity() throws JsonProcessingException {
+        final UUID id = randomId();
+        final Account account = readOnlyTransaction.execute(status -> repository.findById(id).orElseThrow());
+        return objectMapper.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public byte[] projection() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(accountService.getById(randomId()));
+    }
+
+    private UUID randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.bank.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.bank.model.Account;
+import org.example.bank.model.AccountView;
+import org.example.bank.model.Operation;
+import org.example.bank.model.OperationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the request and response bodies of POST /api/v1/wallet.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    private ObjectReader operationReader;
+    private ObjectWriter operationWriter;
+    private ObjectWriter accountWriter;
+    private ObjectWriter accountViewWriter;
+    private Operation operation;
+    private String operationJson;
+    private Account account;
+    private AccountView accountView;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        operationReader = objectMapper.readerFor(Operation.class);
+        operationWriter = objectMapper.writerFor(Operation.class);
+        accountWriter = objectMapper.writerFor(Account.class);
+        accountViewWriter = objectMapper.writerFor(AccountView.class);
+
+        operation = new Operation(UUID.randomUUID(), OperationType.DEPOSIT, 2050);
+        operationJson = operationWriter.writeValueAsString(operation);
+        account = new Account();
+        account.setId(operation.getAccountId());
+        account.setBalance(2050);
+        account.setStripeCount(0);
+        accountView = AccountView.of(account);
+    }
+
+    @Benchmark
+    public Operation readOperation() throws JsonProcessingException {
+        return operationReader.readValue(operationJson);
+    }
+
+    @Benchmark
+    public String writeOperation() throws JsonProcessingException {
+        return operationWriter.writeValueAsString(operation);
+    }
+
+    @Benchmark
+    public String writeAccount() throws JsonProcessingException {
+        return accountWriter.writeValueAsString(account);
+    }
+
+    @Benchmark
+    public String writeAccountView() throws JsonProcessingException {
+        return accountViewWriter.writeValueAsString(accountView);
+    }
+}
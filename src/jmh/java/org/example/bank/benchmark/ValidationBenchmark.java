@@ -0,0 +1,67 @@
+package org.example.bank.benchmark;
+
+import org.example.bank.model.Account;
+import org.example.bank.model.Operation;
+import org.example.bank.model.OperationType;
+import org.example.bank.model.exception.NotEnoughException;
+import org.example.bank.service.AccountValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation without the database: the accepted path, the rejected path, and creating the exception alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+    private final AccountValidator validator = new AccountValidator();
+    private Account account;
+    private Operation accepted;
+    private Operation rejected;
+
+    @Setup
+    public void setUp() {
+        account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setBalance(10000);
+        account.setStripeCount(0);
+        accepted = new Operation(account.getId(), OperationType.WITHDRAW, 1000);
+        rejected = new Operation(account.getId(), OperationType.WITHDRAW, 100000);
+    }
+
+    @Benchmark
+    public Operation validateAccepted() {
+        validator.validateOnOperation(account, accepted);
+        return accepted;
+    }
+
+    @Benchmark
+    public RuntimeException validateRejected() {
+        try {
+            validator.validateOnOperation(account, rejected);
+            return null;
+        } catch (NotEnoughException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public NotEnoughException createNotEnoughException() {
+        return new NotEnoughException(account.getId(), account.getBalance(), rejected.getAmount());
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.bank.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Picks account indexes either uniformly or Zipf-distributed: the account of rank k is picked with weight 1 / k^s,
+ * so with s around 1 a handful of accounts get most of the traffic, like real wallets do.
+ */
+final class AccountSampler {
+    private final int accounts;
+    private final double[] cumulative;
+
+    private AccountSampler(int accounts, double[] cumulative) {
+        this.accounts = accounts;
+        this.cumulative = cumulative;
+    }
+
+    static AccountSampler uniform(int accounts) {
+        return new AccountSampler(accounts, null);
+    }
+
+    static AccountSampler zipf(int accounts, double exponent) {
+        final double[] cumulative = new double[accounts];
+        double sum = 0;
+        for (int rank = 1; rank <= accounts; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < accounts; i++) {
+            cumulative[i] /= sum;
+        }
+        return new AccountSampler(accounts, cumulative);
+    }
+
+    int next(SplittableRandom random) {
+        if (cumulative == null) {
+            return random.nextInt(accounts);
+        }
+        final int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, accounts - 1);
+    }
+}
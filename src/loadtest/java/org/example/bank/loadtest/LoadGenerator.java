@@ -0,0 +1,375 @@
+package org.example.bank.loadtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.example.bank.BankApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load against the wallet API: requests are sent on a fixed schedule whatever the server does,
+ * and each latency is measured from the moment its request was due, not from when it was actually sent.
+ * A stalled server therefore shows up in the percentiles instead of slowing the generator down
+ * (no coordinated omission, unlike the closed-loop JMeter plan).
+ * <p>
+ * Afterwards every account is read back and compared to the balance implied by the writes that returned 200.
+ * Writes that timed out or failed on the server have an unknown outcome, their accounts are skipped.
+ * <p>
+ * Arguments, all {@code key=value}:
+ * <ul>
+ *     <li>url - base URL of a running instance; without it the application is started here on the embedded H2</li>
+ *     <li>rate - requests per second, 200</li>
+ *     <li>warmup, duration - 10s, 60s; warmup latencies are not recorded</li>
+ *     <li>accounts - 1000</li>
+ *     <li>skew - uniform or zipf; zipf-exponent - 1.0</li>
+ *     <li>read-ratio - share of GET /api/v1/wallet/{id}, 0.5; the rest are POST /api/v1/wallet</li>
+ *     <li>withdraw-ratio - share of writes that withdraw, 0.5</li>
+ *     <li>initial-balance - of every account, in major units, 100</li>
+ *     <li>max-in-flight - requests falling due while this many are pending are dropped and counted, 5000</li>
+ *     <li>seed - for the request sequence, 42</li>
+ *     <li>output - directory for the .hgrm latency distributions, .</li>
+ *     <li>app.* - properties of the started application, e.g. app.bank.operation.mode=partitioned</li>
+ * </ul>
+ */
+public class LoadGenerator {
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int SEED_CHUNK_SIZE = 1000;
+
+    private final Map<String, String> args;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    private final Stats reads = new Stats("reads");
+    private final Stats writes = new Stats("writes");
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private String baseUrl;
+    private UUID[] ids;
+    private AtomicLongArray expected;
+    private AtomicIntegerArray unknown;
+
+    private LoadGenerator(Map<String, String> args) {
+        this.args = args;
+    }
+
+    public static void main(String[] argv) throws Exception {
+        final Map<String, String> args = new HashMap<>();
+        for (String arg : argv) {
+            final int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            args.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        System.exit(new LoadGenerator(args).run());
+    }
+
+    private int run() throws Exception {
+        ConfigurableApplicationContext context = null;
+        if (args.containsKey("url")) {
+            baseUrl = args.get("url");
+        } else {
+            context = startApplication();
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        }
+
+        try {
+            final int accounts = integer("accounts", 1000);
+            final long initialBalance = new BigDecimal(string("initial-balance", "100")).movePointRight(2).longValueExact();
+            System.out.printf("Creating %d accounts at %s%n", accounts, baseUrl);
+            createAccounts(accounts, initialBalance);
+
+            generate();
+            awaitInFlight();
+
+            report(reads);
+            report(writes);
+            System.out.printf("dropped: %d%n", dropped.get());
+            return verify() ? 0 : 1;
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication() {
+        final List<String> properties = new ArrayList<>(List.of("server.port=0", "logging.level.root=warn"));
+        args.forEach((key, value) -> {
+            if (key.startsWith("app.")) {
+                properties.add(key.substring("app.".length()) + "=" + value);
+            }
+        });
+        return new SpringApplicationBuilder(BankApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+
+    private void createAccounts(int accounts, long initialBalance) throws IOException, InterruptedException {
+        ids = new UUID[accounts];
+        expected = new AtomicLongArray(accounts);
+        unknown = new AtomicIntegerArray(accounts);
+
+        int created = 0;
+        while (created < accounts) {
+            final int count = Math.min(100000, accounts - created);
+            final HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/v1/wallet/create/bulk?count=" + count))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build());
+            for (String line : response.body().split("\n")) {
+                ids[created++] = UUID.fromString(objectMapper.readTree(line).get("id").asText());
+            }
+        }
+
+        if (initialBalance == 0) {
+            return;
+        }
+        for (int from = 0; from < accounts; from += SEED_CHUNK_SIZE) {
+            final List<Map<String, Object>> deposits = new ArrayList<>();
+            for (int i = from; i < Math.min(accounts, from + SEED_CHUNK_SIZE); i++) {
+                deposits.add(Map.of("accountId", ids[i], "type", "DEPOSIT", "amount", BigDecimal.valueOf(initialBalance, 2)));
+                expected.set(i, initialBalance);
+            }
+            send(HttpRequest.newBuilder(uri("/api/v1/wallet/batch?atomic=true"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(deposits)))
+                    .build());
+        }
+    }
+
+    private void generate() {
+        final double rate = Double.parseDouble(string("rate", "200"));
+        final long warmup = duration("warmup", "10s").toNanos();
+        final long duration = duration("duration", "60s").toNanos();
+        final double readRatio = Double.parseDouble(string("read-ratio", "0.5"));
+        final double withdrawRatio = Double.parseDouble(string("withdraw-ratio", "0.5"));
+        final int maxInFlight = integer("max-in-flight", 5000);
+        final SplittableRandom random = new SplittableRandom(Long.parseLong(string("seed", "42")));
+        final AccountSampler sampler = "zipf".equals(string("skew", "uniform"))
+                ? AccountSampler.zipf(ids.length, Double.parseDouble(string("zipf-exponent", "1.0")))
+                : AccountSampler.uniform(ids.length);
+
+        System.out.printf("Sending %.0f requests/s for %ds after a %ds warmup%n",
+                rate, TimeUnit.NANOSECONDS.toSeconds(duration), TimeUnit.NANOSECONDS.toSeconds(warmup));
+        final double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        final long start = System.nanoTime();
+        final long measureFrom = start + warmup;
+        final long end = measureFrom + duration;
+        for (long i = 0; ; i++) {
+            final long due = start + (long) (i * intervalNanos);
+            if (due >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            // the sequence depends on the seed only, not on timing
+            final int account = sampler.next(random);
+            final boolean read = random.nextDouble() < readRatio;
+            final boolean withdraw = random.nextDouble() < withdrawRatio;
+            final long amount = 100 + random.nextInt(900);
+            if (inFlight.get() >= maxInFlight) {
+                dropped.incrementAndGet();
+                continue;
+            }
+            if (read) {
+                read(account, due, due >= measureFrom);
+            } else {
+                write(account, withdraw, amount, due, due >= measureFrom);
+            }
+        }
+    }
+
+    private void read(int account, long due, boolean measured) {
+        final HttpRequest request = HttpRequest.newBuilder(uri("/api/v1/wallet/" + ids[account]))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    try {
+                        reads.record(due, measured, response, error);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+    }
+
+    private void write(int account, boolean withdraw, long amount, long due, boolean measured) {
+        final String body = String.format("{\"accountId\":\"%s\",\"type\":\"%s\",\"amount\":%s}",
+                ids[account], withdraw ? "WITHDRAW" : "DEPOSIT", BigDecimal.valueOf(amount, 2).toPlainString());
+        final HttpRequest request = HttpRequest.newBuilder(uri("/api/v1/wallet"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    // a callback that throws is swallowed by the future, the counter must not leak with it
+                    try {
+                        writes.record(due, measured, response, error);
+                        if (error != null && !(rootCause(error) instanceof ConnectException)
+                                || error == null && response.statusCode() >= 500) {
+                            unknown.set(account, 1);
+                        } else if (error == null && response.statusCode() == 200) {
+                            expected.addAndGet(account, withdraw ? -amount : amount);
+                        }
+                        // 400 is a rejection, 429 was shed and a refused connection never arrived:
+                        // none changed the account
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        final long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos() + TimeUnit.SECONDS.toNanos(5);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void report(Stats stats) throws IOException {
+        final Histogram histogram = stats.histogram;
+        final double seconds = duration("duration", "60s").toMillis() / 1000.0;
+        System.out.printf("%s: %d requests, %.1f/s, p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms, status %s%n",
+                stats.name, histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()), stats.statuses);
+
+        final Path file = Path.of(string("output", "."), "loadtest-" + stats.name + ".hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private boolean verify() throws IOException, InterruptedException {
+        int checked = 0;
+        int skipped = 0;
+        final List<String> mismatches = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (unknown.get(i) == 1) {
+                skipped++;
+                continue;
+            }
+            final HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/v1/wallet/" + ids[i])).GET().build());
+            final JsonNode balance = objectMapper.readTree(response.body()).get("balance");
+            final long actual = balance.decimalValue().movePointRight(2).longValueExact();
+            if (actual != expected.get(i)) {
+                mismatches.add(String.format("%s: expected %d, got %d", ids[i], expected.get(i), actual));
+            }
+            checked++;
+        }
+
+        System.out.printf("consistency: %d accounts checked, %d mismatched, %d skipped with unknown outcome%n",
+                checked, mismatches.size(), skipped);
+        mismatches.stream().limit(10).forEach(System.out::println);
+        return mismatches.isEmpty();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        final HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private String string(String key, String defaultValue) {
+        return args.getOrDefault(key, defaultValue);
+    }
+
+    private int integer(String key, int defaultValue) {
+        return args.containsKey(key) ? Integer.parseInt(args.get(key)) : defaultValue;
+    }
+
+    /**
+     * Accepts 30s, 500ms, 2m or plain seconds.
+     */
+    private Duration duration(String key, String defaultValue) {
+        final String value = string(key, defaultValue);
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static class Stats {
+        private final String name;
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        private final Map<String, AtomicLong> statuses = new ConcurrentHashMap<>();
+
+        private Stats(String name) {
+            this.name = name;
+        }
+
+        private void record(long due, boolean measured, HttpResponse<?> response, Throwable error) {
+            if (measured) {
+                final long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due);
+                histogram.recordValue(Math.min(micros, HIGHEST_LATENCY_MICROS));
+                statuses.computeIfAbsent(error != null ? rootCause(error).getClass().getSimpleName()
+                                : String.valueOf(response.statusCode()),
+                        status -> new AtomicLong()).incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.bank.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small in-process LRU cache with a size bound and a time to live.
+ * <p>
+ * Keys are spread over independently locked segments so concurrent readers of different keys
+ * rarely meet on the same monitor. Size and expiry evictions are counted together.
+ */
+public class BoundedCache<K, V> {
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final AtomicLong evictions = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int maxSize, Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        this.segments = new Segment[SEGMENTS];
+        final int segmentSize = Math.max(1, maxSize / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(segmentSize, evictions);
+        }
+    }
+
+    /**
+     * @return the value, or null when the key is missing or its entry has expired
+     */
+    public V get(K key) {
+        return segmentFor(key).get(key, System.nanoTime());
+    }
+
+    /**
+     * @return the value if it was stored no longer than {@code maxAge} ago, or null
+     */
+    public V get(K key, Duration maxAge) {
+        return segmentFor(key).get(key, System.nanoTime(), maxAge.toNanos());
+    }
+
+    public void put(K key, V value) {
+        segmentFor(key).put(key, value, System.nanoTime(), ttlNanos);
+    }
+
+    public void invalidate(K key) {
+        segmentFor(key).remove(key);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        final int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private record Entry<V>(V value, long storedAt, long expiresAt) {
+    }
+
+    private static class Segment<K, V> {
+        private final LinkedHashMap<K, Entry<V>> entries;
+        private final AtomicLong evictions;
+
+        private Segment(int maxSize, AtomicLong evictions) {
+            this.evictions = evictions;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > maxSize) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private synchronized V get(K key, long now) {
+            return get(key, now, Long.MAX_VALUE);
+        }
+
+        private synchronized V get(K key, long now, long maxAgeNanos) {
+            final Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.expiresAt() >= 0) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return now - entry.storedAt() <= maxAgeNanos ? entry.value() : null;
+        }
+
+        private synchronized void put(K key, V value, long now, long ttlNanos) {
+            expireOldest(now);
+            entries.put(key, new Entry<>(value, now, now + ttlNanos));
+        }
+
+        private synchronized void remove(K key) {
+            entries.remove(key);
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+
+        /**
+         * Drops expired entries from the least recently used end, so untouched keys do not linger until the size bound.
+         */
+        private void expireOldest(long now) {
+            final Iterator<Entry<V>> iterator = entries.values().iterator();
+            for (int i = 0; i < 2 && iterator.hasNext(); i++) {
+                if (now - iterator.next().expiresAt() >= 0) {
+                    iterator.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.bank.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bank.config.BalanceCacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Delivers invalidations locally and posts them in batches to the peer instances listed in
+ * {@code bank.balance-cache.peers}. A lost batch only means the peers serve entries until they age out.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bank.balance-cache", name = "bus", havingValue = "http")
+public class HttpInvalidationBus extends InProcessInvalidationBus {
+    public static final String PATH = "/internal/cache/invalidations";
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final List<String> peers;
+    private final RestClient restClient;
+    private final BlockingQueue<Invalidation> outbox = new LinkedBlockingQueue<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "invalidation-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public HttpInvalidationBus(BalanceCacheProperties properties, RestClient.Builder restClientBuilder) {
+        this.peers = properties.getPeers();
+        this.restClient = restClientBuilder.build();
+        sender.execute(this::send);
+    }
+
+    @Override
+    public void publish(UUID accountId) {
+        final Invalidation invalidation = new Invalidation(accountId, System.currentTimeMillis());
+        deliver(invalidation);
+        if (!peers.isEmpty()) {
+            outbox.add(invalidation);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private void send() {
+        final List<Invalidation> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(outbox.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            outbox.drainTo(batch, MAX_BATCH_SIZE - 1);
+            for (String peer : peers) {
+                try {
+                    restClient.post()
+                            .uri(peer + PATH)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(batch)
+                            .retrieve()
+                            .toBodilessEntity();
+                } catch (RuntimeException e) {
+                    log.warn("Failed to send {} invalidations to {}", batch.size(), peer, e);
+                }
+            }
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.bank.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers invalidations to subscribers of this instance only. Enough for a single instance and for tests.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank.balance-cache", name = "bus", havingValue = "in-process", matchIfMissing = true)
+public class InProcessInvalidationBus implements InvalidationBus {
+    private final List<Consumer<Invalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(UUID accountId) {
+        deliver(new Invalidation(accountId, System.currentTimeMillis()));
+    }
+
+    @Override
+    public void subscribe(Consumer<Invalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void deliver(Invalidation invalidation) {
+        subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.bank.cache;
+
+import java.util.UUID;
+
+/**
+ * @param publishedAt epoch millis on the publishing instance, used to measure invalidation lag
+ */
+public record Invalidation(UUID accountId, long publishedAt) {
+}
@@ -0,0 +1,15 @@
+package org.example.bank.cache;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Tells every instance behind the load balancer that an account changed.
+ * Published invalidations are delivered to local subscribers as well.
+ */
+public interface InvalidationBus {
+
+    void publish(UUID accountId);
+
+    void subscribe(Consumer<Invalidation> subscriber);
+}
@@ -0,0 +1,31 @@
+package org.example.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "bank.account")
+public class AccountProperties {
+    private Bulk bulk = new Bulk();
+    private Query query = new Query();
+
+    @Data
+    public static class Bulk {
+        private int maxCount = 100000;
+
+        /**
+         * Wallets inserted per transaction, each chunk is committed before its ids are streamed back.
+         */
+        private int chunkSize = 1000;
+    }
+
+    @Data
+    public static class Query {
+        private int maxIds = 1000;
+
+        /**
+         * Ids per IN list, keeps statements within driver parameter limits and plan caches small.
+         */
+        private int chunkSize = 200;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+
+    /**
+     * Requests allowed to work at the same time, normally the size of the connection pool.
+     */
+    private int maxInFlight = 10;
+
+    /**
+     * Requests allowed to wait for an in-flight slot, the rest is shed at once.
+     */
+    private int maxQueued = 100;
+
+    private Duration maxQueueWait = Duration.ofMillis(200);
+
+    /**
+     * Requests for a single account, in flight or waiting.
+     */
+    private int maxPerAccount = 16;
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
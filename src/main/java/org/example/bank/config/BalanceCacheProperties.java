@@ -0,0 +1,36 @@
+package org.example.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "bank.balance-cache")
+public class BalanceCacheProperties {
+    private boolean enabled = true;
+
+    private int size = 100000;
+
+    /**
+     * Upper bound for how long an entry is served, even if an invalidation was lost.
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /**
+     * Staleness accepted by GET /api/v1/wallet/{id} when the caller does not pass maxStaleness; 0 reads the database.
+     */
+    private Duration defaultMaxStaleness = Duration.ZERO;
+
+    /**
+     * in-process | http
+     */
+    private String bus = "in-process";
+
+    /**
+     * Base URLs of the other instances, used by the http bus.
+     */
+    private List<String> peers = new ArrayList<>();
+}
@@ -0,0 +1,35 @@
+package org.example.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.history")
+public class HistoryProperties {
+    /**
+     * Record applied operations in operation_history, one more insert in every write transaction.
+     */
+    private boolean enabled = true;
+
+    private int pageSize = 50;
+
+    private int maxPageSize = 500;
+
+    /**
+     * Rows the export cursor fetches per round trip, which bounds its memory whatever the history length.
+     */
+    private int exportFetchSize = 1000;
+
+    /**
+     * Exports streaming at once. They are kept out of admission control, whose slots are sized for short online
+     * requests, so this is what bounds the pooled connections held by downloads.
+     */
+    private int maxConcurrentExports = 2;
+
+    /**
+     * Longest an export may keep its cursor and connection, however slowly the client reads.
+     */
+    private Duration exportTimeout = Duration.ofMinutes(5);
+}
@@ -0,0 +1,21 @@
+package org.example.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.idempotency")
+public class IdempotencyProperties {
+    private int cacheSize = 10000;
+
+    private Duration cacheTtl = Duration.ofMinutes(10);
+
+    /**
+     * How long keys are kept in idempotency_key, retries after that are executed again.
+     */
+    private Duration retention = Duration.ofHours(24);
+
+    private long cleanupInterval = 60000;
+}
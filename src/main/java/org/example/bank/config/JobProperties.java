@@ -0,0 +1,35 @@
+package org.example.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.job")
+public class JobProperties {
+    /**
+     * Accounts per keyset range; a range is locked, written and checkpointed in one transaction.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Ranges written at the same time, each holds one pooled connection. 0 for half of the connection pool.
+     */
+    private int parallelism = 0;
+
+    /**
+     * Upper bound on accounts per second over all workers, 0 for no bound.
+     */
+    private int maxRate = 0;
+
+    /**
+     * Pause before the next range while online requests are waiting for a pooled connection.
+     */
+    private Duration backoff = Duration.ofMillis(50);
+
+    /**
+     * Continue jobs left unfinished by a crash or a restart once the application is ready.
+     */
+    private boolean resumeOnStartup = true;
+}
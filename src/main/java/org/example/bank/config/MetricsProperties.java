@@ -0,0 +1,30 @@
+package org.example.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.metrics")
+public class MetricsProperties {
+    private HotAccounts hotAccounts = new HotAccounts();
+
+    @Data
+    public static class HotAccounts {
+        /**
+         * Accounts tracked by the sketch, memory stays bounded by this whatever the number of accounts.
+         */
+        private int capacity = 256;
+
+        /**
+         * Lock waits shorter than this are not counted as contention.
+         */
+        private Duration minLockWait = Duration.ofMillis(1);
+
+        /**
+         * Accounts returned by the hotaccounts endpoint.
+         */
+        private int limit = 20;
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.operation")
+public class OperationProperties {
+    /**
+     * Strategy used by AccountService.makeOperation. Engines are picked with
+     * {@code @ConditionalOnProperty}, so values are written in kebab case: pessimistic, group-commit, atomic-update, journal,
+     * partitioned, adaptive, write-behind.
+     */
+    private Mode mode = Mode.PESSIMISTIC;
+
+    private GroupCommit groupCommit = new GroupCommit();
+
+    private Stripes stripes = new Stripes();
+
+    private Journal journal = new Journal();
+
+    private Batch batch = new Batch();
+
+    private Partitioned partitioned = new Partitioned();
+
+    private Adaptive adaptive = new Adaptive();
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    public enum Mode {
+        PESSIMISTIC,
+        GROUP_COMMIT,
+        ATOMIC_UPDATE,
+        JOURNAL,
+        PARTITIONED,
+        ADAPTIVE,
+        WRITE_BEHIND
+    }
+
+    @Data
+    public static class GroupCommit {
+        /**
+         * Accounts are hashed to a fixed number of stripes, operations queued on one stripe share a transaction.
+         */
+        private int stripes = 64;
+
+        private int maxBatchSize = 128;
+    }
+
+    @Data
+    public static class Stripes {
+        /**
+         * Route operations on striped accounts to their stripes. Costs one primary key read per operation.
+         */
+        private boolean enabled = false;
+
+        private int maxCount = 64;
+    }
+
+    @Data
+    public static class Journal {
+        private long compactionInterval = 1000;
+
+        /**
+         * Accounts folded per compaction run, each one in its own transaction.
+         */
+        private int compactionAccounts = 100;
+
+        private int compactionBatchSize = 1000;
+    }
+
+    @Data
+    public static class Batch {
+        private int maxSize = 10000;
+
+        /**
+         * Ids per locking SELECT ... WHERE id IN (...) ORDER BY id.
+         */
+        private int lockChunkSize = 500;
+    }
+
+    @Data
+    public static class Partitioned {
+        /**
+         * Single-writer threads, 0 for one per available core.
+         */
+        private int partitions = 0;
+
+        private int maxBatchSize = 256;
+
+        /**
+         * Balances each partition keeps in memory, least recently used accounts are reloaded on demand.
+         */
+        private int maxCachedAccounts = 100000;
+    }
+
+    @Data
+    public static class Adaptive {
+        /**
+         * Optimistic attempts before the operation falls back to the row lock.
+         */
+        private int maxAttempts = 3;
+
+        private Duration backoff = Duration.ofMillis(1);
+
+        private Duration maxBackoff = Duration.ofMillis(20);
+
+        /**
+         * Weight of the latest outcome in an account's conflict rate.
+         */
+        private double smoothing = 0.1;
+
+        /**
+         * Conflict rate at which an account switches to the pessimistic path.
+         */
+        private double highConflictRate = 0.2;
+
+        /**
+         * Conflict rate at which a pessimistic account switches back.
+         */
+        private double lowConflictRate = 0.05;
+
+        /**
+         * Row lock waits at least this long count as conflicts on the pessimistic path.
+         */
+        private Duration contendedLockWait = Duration.ofMillis(1);
+
+        private int maxTrackedAccounts = 100000;
+
+        private Duration trackedTtl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class WriteBehind {
+        /**
+         * Write-ahead log segments of this instance. Must not be shared with another instance.
+         */
+        private String directory = "wal";
+
+        /**
+         * Key of this instance's checkpoint in wal_checkpoint, one per log directory.
+         */
+        private String nodeId = "local";
+
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Pause of the flusher when the log has nothing durable left to apply.
+         */
+        private Duration flushInterval = Duration.ofMillis(10);
+
+        /**
+         * Log records applied to the account table per transaction.
+         */
+        private int flushBatchSize = 10000;
+
+        /**
+         * In-memory balances kept once everything about them is flushed, the rest are reloaded on demand.
+         */
+        private int maxCachedAccounts = 100000;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Data
+@ConfigurationProperties(prefix = "bank.ownership")
+public class OwnershipProperties {
+    private boolean enabled = false;
+
+    /**
+     * Owner name written to ownership_lease, unique per running instance.
+     */
+    private String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * Base URL the other instances use to reach this one.
+     */
+    private String advertisedUrl = "http://localhost:8080";
+
+    /**
+     * Hash ranges the account ids are split into, the unit of ownership.
+     */
+    private int ranges = 64;
+
+    /**
+     * How long a range stays owned without renewal, i.e. how long a dead instance's accounts go without an owner.
+     */
+    private Duration leaseDuration = Duration.ofSeconds(10);
+
+    private long renewInterval = 3000;
+
+    /**
+     * forward | redirect
+     */
+    private String onMiss = "forward";
+
+    private Duration forwardTimeout = Duration.ofSeconds(2);
+}
@@ -1,36 +1,182 @@
 package org.example.bank.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.example.bank.model.Account;
+import org.example.bank.model.AccountQueryResult;
+import org.example.bank.model.AccountView;
+import org.example.bank.model.BatchResult;
+import org.example.bank.model.HistoryPage;
 import org.example.bank.model.Operation;
+import org.example.bank.model.OperationResult;
 import org.example.bank.service.AccountService;
+import org.example.bank.service.AdmissionControl;
+import org.example.bank.service.HistoryService;
+import org.example.bank.service.IdempotencyService;
+import org.example.bank.service.StripedAccountService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1")
 @RequiredArgsConstructor
 public class AccountController {
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final AccountService accountService;
+    private final StripedAccountService stripedAccountService;
+    private final IdempotencyService idempotencyService;
+    private final AdmissionControl admissionControl;
+    private final HistoryService historyService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/wallet/create")
     public Account create() {
-        return accountService.create();
+        return admissionControl.execute(null, accountService::create);
+    }
+
+    /**
+     * Creates {@code count} wallets and streams them back as NDJSON, one line per wallet, a chunk at a time.
+     */
+    @PostMapping(value = "/wallet/create/bulk", produces = NDJSON_VALUE)
+    public StreamingResponseBody create(@RequestParam("count") Integer count) {
+        // before the body is streamed, so a bad count is still an ordinary 400
+        accountService.validateCreate(count);
+        return output -> admissionControl.execute(null, () -> {
+            accountService.create(count, accounts -> write(output, accounts));
+            return null;
+        });
     }
 
     @GetMapping("/wallet/{id}")
-    public Account getById(@PathVariable("id") UUID id) {
-        return accountService.getById(id);
+    public AccountView getById(@PathVariable("id") UUID id,
+                           @RequestParam(value = "maxStaleness", required = false) Long maxStalenessMillis) {
+        final Duration maxStaleness = maxStalenessMillis == null ? null : Duration.ofMillis(maxStalenessMillis);
+        return admissionControl.execute(id, () -> accountService.getById(id, maxStaleness));
+    }
+
+    /**
+     * Up to {@code bank.account.query.max-ids} wallets at once, unknown ids come back in {@code missing}.
+     */
+    @PostMapping("/wallets/query")
+    public AccountQueryResult query(@RequestBody List<UUID> ids) {
+        return admissionControl.execute(null, () -> accountService.getByIds(ids));
+    }
+
+    /**
+     * Same as the POST variant with the ids repeated in the query string, e.g. {@code ?id=...&id=...}.
+     */
+    @GetMapping("/wallets")
+    public AccountQueryResult getByIds(@RequestParam(value = "id", required = false) List<UUID> ids) {
+        return admissionControl.execute(null, () -> accountService.getByIds(ids));
+    }
+
+    /**
+     * Newest first. Pass {@code next} of a page as {@code before} to get the following one.
+     */
+    @GetMapping("/wallet/{id}/operations")
+    public HistoryPage getHistory(@PathVariable("id") UUID id,
+                                  @RequestParam(value = "before", required = false) Long before,
+                                  @RequestParam(value = "limit", required = false) Integer limit) {
+        return admissionControl.execute(id, () -> historyService.getHistory(id, before, limit));
+    }
+
+    /**
+     * The whole history as NDJSON, oldest first, streamed from a database cursor.
+     * Limited by its own export slots rather than admission control, so slow downloads don't starve online requests.
+     */
+    @GetMapping(value = "/wallet/{id}/operations/export", produces = NDJSON_VALUE)
+    public StreamingResponseBody exportHistory(@PathVariable("id") UUID id) {
+        historyService.checkExists(id);
+        final HistoryService.ExportSlot slot = historyService.acquireExport();
+        return output -> {
+            try (slot) {
+                historyService.export(id, entry -> writeLine(output, entry));
+            }
+        };
     }
 
     @PostMapping("/wallet")
-    public Account makeOperation(@RequestBody Operation operation) {
-        return accountService.makeOperation(operation);
+    public ResponseEntity<?> makeOperation(@RequestBody Operation operation,
+                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            final OperationResult result = admissionControl.execute(operation.getAccountId(),
+                    () -> accountService.tryOperation(operation));
+            if (!result.isApplied()) {
+                return ResponseEntity.badRequest()
+                        .body(new ErrorResponse(HttpStatus.BAD_REQUEST.value(), result.rejection().getMessage()));
+            }
+            return ResponseEntity.ok(result.account());
+        }
+        return ResponseEntity.ok(admissionControl.execute(operation.getAccountId(), () -> idempotencyService.execute(
+                idempotencyKey, operation, () -> accountService.makeOperation(operation))));
+    }
+
+    @PostMapping(value = "/wallet/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BatchResult makeOperations(@RequestBody List<Operation> operations,
+                                      @RequestParam(value = "atomic", defaultValue = "false") Boolean atomic) {
+        return admissionControl.execute(null, () -> accountService.makeOperations(operations, atomic));
+    }
+
+    /**
+     * Same as the JSON variant, one operation per line.
+     */
+    @PostMapping(value = "/wallet/batch", consumes = NDJSON_VALUE)
+    public BatchResult makeOperations(InputStream body,
+                                      @RequestParam(value = "atomic", defaultValue = "false") Boolean atomic)
+            throws IOException {
+        final List<Operation> operations;
+        try (MappingIterator<Operation> iterator = objectMapper.readerFor(Operation.class).readValues(body)) {
+            operations = iterator.readAll();
+        }
+        return admissionControl.execute(null, () -> accountService.makeOperations(operations, atomic));
+    }
+
+    private void write(OutputStream output, List<Account> accounts) {
+        accounts.forEach(account -> writeLine(output, account));
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLine(OutputStream output, Object value) {
+        try {
+            output.write(objectMapper.writeValueAsBytes(value));
+            output.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PostMapping("/wallet/{id}/stripes")
+    public Account stripe(@PathVariable("id") UUID id, @RequestParam("count") Integer count) {
+        return stripedAccountService.stripe(id, count);
+    }
+
+    @DeleteMapping("/wallet/{id}/stripes")
+    public Account unstripe(@PathVariable("id") UUID id) {
+        return stripedAccountService.unstripe(id);
     }
 }
@@ -0,0 +1,33 @@
+package org.example.bank.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.model.BalanceJob;
+import org.example.bank.model.BalanceJobRequest;
+import org.example.bank.service.job.BalanceJobService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/jobs")
+@RequiredArgsConstructor
+public class BalanceJobController {
+    private final BalanceJobService balanceJobService;
+
+    /**
+     * Starts the job in the background and answers with its progress. Posting an unfinished job's id again resumes it.
+     */
+    @PostMapping
+    public ResponseEntity<BalanceJob> start(@RequestBody BalanceJobRequest request) {
+        return ResponseEntity.accepted().body(balanceJobService.start(request));
+    }
+
+    @GetMapping("/{id}")
+    public BalanceJob get(@PathVariable("id") String id) {
+        return balanceJobService.get(id);
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.bank.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.cache.HttpInvalidationBus;
+import org.example.bank.cache.Invalidation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Receives invalidations posted by the peers' {@link HttpInvalidationBus}.
+ */
+@RestController
+@ConditionalOnProperty(prefix = "bank.balance-cache", name = "bus", havingValue = "http")
+@RequiredArgsConstructor
+public class CacheInvalidationController {
+    private final HttpInvalidationBus bus;
+
+    @PostMapping(HttpInvalidationBus.PATH)
+    public void invalidate(@RequestBody List<Invalidation> invalidations) {
+        invalidations.forEach(bus::deliver);
+    }
+}
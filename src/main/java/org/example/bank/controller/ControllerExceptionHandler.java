@@ -1,7 +1,10 @@
 package org.example.bank.controller;
 
 import org.example.bank.model.exception.CommonException;
+import org.example.bank.model.exception.OverloadedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -22,4 +25,11 @@ public class ControllerExceptionHandler {
     public ErrorResponse resourceNotFoundException(NoSuchElementException ex) {
         return new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage());
     }
+
+    @ExceptionHandler(value = {OverloadedException.class})
+    public ResponseEntity<ErrorResponse> overloadedException(OverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(), ex.getMessage()));
+    }
 }
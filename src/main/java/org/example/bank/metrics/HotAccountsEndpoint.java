@@ -0,0 +1,37 @@
+package org.example.bank.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.config.MetricsProperties;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * GET /actuator/hotaccounts: accounts with the most time spent waiting for their row lock.
+ * Weights are nanoseconds, {@code error} is the largest possible overestimate of a weight.
+ */
+@Component
+@Endpoint(id = "hotaccounts")
+@RequiredArgsConstructor
+public class HotAccountsEndpoint {
+    private final OperationMetrics operationMetrics;
+    private final MetricsProperties properties;
+
+    @ReadOperation
+    public HotAccounts hotAccounts(@Nullable Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new InvalidEndpointRequestException("Limit must be positive, got " + limit, "Invalid limit");
+        }
+        final SpaceSaving<UUID> sketch = operationMetrics.hotAccounts();
+        return new HotAccounts(sketch.total(),
+                sketch.top(limit == null ? properties.getHotAccounts().getLimit() : limit));
+    }
+
+    public record HotAccounts(long totalLockWaitNanos, List<SpaceSaving.Entry<UUID>> accounts) {
+    }
+}
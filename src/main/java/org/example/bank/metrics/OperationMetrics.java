@@ -0,0 +1,123 @@
+package org.example.bank.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.bank.config.MetricsProperties;
+import org.example.bank.config.OperationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Breaks the time of an operation into phases, all under {@code bank.operation.phase}:
+ * lock (waiting for the account row), validate, flush, commit. Lock waits also feed a Space-Saving sketch
+ * of the most contended accounts, served by the {@code hotaccounts} actuator endpoint.
+ */
+@Component
+public class OperationMetrics {
+    private final Timer lock;
+    private final Timer validate;
+    private final Timer flush;
+    private final Timer commit;
+    private final SpaceSaving<UUID> hotAccounts;
+    private final long minLockWaitNanos;
+
+    public OperationMetrics(MeterRegistry meterRegistry,
+                            OperationProperties operationProperties,
+                            MetricsProperties properties,
+                            DataSource dataSource) {
+        final String mode = operationProperties.getMode().name().toLowerCase().replace('_', '-');
+        this.lock = phase(meterRegistry, mode, "lock");
+        this.validate = phase(meterRegistry, mode, "validate");
+        this.flush = phase(meterRegistry, mode, "flush");
+        this.commit = phase(meterRegistry, mode, "commit");
+        this.hotAccounts = new SpaceSaving<>(properties.getHotAccounts().getCapacity());
+        this.minLockWaitNanos = properties.getHotAccounts().getMinLockWait().toNanos();
+
+        final HikariPoolMXBean pool = pool(dataSource);
+        if (pool != null) {
+            final int maxSize = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 0;
+            Gauge.builder("bank.pool.saturation", pool, bean -> maxSize == 0 ? 0 : (double) bean.getActiveConnections() / maxSize)
+                    .description("Share of pooled connections in use")
+                    .register(meterRegistry);
+            Gauge.builder("bank.pool.waiting", pool, HikariPoolMXBean::getThreadsAwaitingConnection)
+                    .description("Threads waiting for a pooled connection")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * @param startedAt {@link System#nanoTime()} before the locking statement
+     */
+    public void recordLock(UUID accountId, long startedAt) {
+        final long waited = System.nanoTime() - startedAt;
+        lock.record(waited, TimeUnit.NANOSECONDS);
+        if (waited >= minLockWaitNanos) {
+            hotAccounts.add(accountId, waited);
+        }
+    }
+
+    public void recordValidate(long startedAt) {
+        validate.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFlush(long startedAt) {
+        flush.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Times the commit of the current transaction, from beforeCommit to afterCompletion.
+     * Does nothing outside a transaction.
+     */
+    public void timeCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long startedAt;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                startedAt = System.nanoTime();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED && startedAt != 0) {
+                    commit.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            }
+        });
+    }
+
+    public SpaceSaving<UUID> hotAccounts() {
+        return hotAccounts;
+    }
+
+    private static Timer phase(MeterRegistry meterRegistry, String mode, String phase) {
+        return Timer.builder("bank.operation.phase")
+                .tag("mode", mode)
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static HikariPoolMXBean pool(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            }
+        } catch (SQLException e) {
+            // not a Hikari pool
+        }
+        return null;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.bank.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy hitters sketch (Metwally et al.): keeps at most {@code capacity} counters for an unbounded
+ * stream of keys. A new key takes over the smallest counter and inherits its count as the error, so every key whose
+ * true weight exceeds total / capacity is guaranteed to be kept, and no count is ever underestimated.
+ */
+public class SpaceSaving<K> {
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void add(K key, long weight) {
+        total += weight;
+        final Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            counter.hits++;
+            return;
+        }
+
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter<>(key, weight, 0));
+            return;
+        }
+
+        // linear scan, only paid by keys that are not tracked yet
+        Counter<K> min = null;
+        for (Counter<K> candidate : counters.values()) {
+            if (min == null || candidate.count < min.count) {
+                min = candidate;
+            }
+        }
+        counters.remove(min.key);
+        counters.put(key, new Counter<>(key, min.count + weight, min.count));
+    }
+
+    /**
+     * @return up to {@code limit} keys by estimated weight, heaviest first
+     */
+    public synchronized List<Entry<K>> top(int limit) {
+        final List<Entry<K>> entries = new ArrayList<>(counters.size());
+        counters.values().forEach(counter -> entries.add(
+                new Entry<>(counter.key, counter.count, counter.error, counter.hits)));
+        entries.sort(Comparator.comparingLong(Entry<K>::count).reversed());
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    public synchronized long total() {
+        return total;
+    }
+
+    /**
+     * @param count estimated weight, at most {@code error} above the true one
+     * @param hits  additions since the key got its counter
+     */
+    public record Entry<K>(K key, long count, long error, long hits) {
+    }
+
+    private static class Counter<K> {
+        private final K key;
+        private long count;
+        private final long error;
+        private long hits = 1;
+
+        private Counter(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
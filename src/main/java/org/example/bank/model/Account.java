@@ -1,10 +1,12 @@
 package org.example.bank.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 import java.util.UUID;
@@ -14,8 +16,38 @@ import java.util.UUID;
 @Data
 public class Account {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
 
-    private Double balance;
+    /**
+     * In minor units, see {@link Money}.
+     */
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long balance;
+
+    /**
+     * Number of balance stripes in account_stripe, 0 for a plain account.
+     * The balance of a striped account is this row's balance plus the sum of its stripes.
+     */
+    private Integer stripeCount;
+
+    /**
+     * Bumped by every write, optimistic writers update only if it is still the version they read.
+     */
+    @Version
+    @JsonIgnore
+    private long version;
+
+    /**
+     * Detached copy, used to hand out the state after one operation while the entity keeps changing.
+     */
+    public Account withBalance(long balance) {
+        final Account copy = new Account();
+        copy.setId(id);
+        copy.setBalance(balance);
+        copy.setStripeCount(stripeCount);
+        copy.setVersion(version);
+        return copy;
+    }
 }
@@ -0,0 +1,11 @@
+package org.example.bank.model;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * @param accounts found accounts in the order they were asked for
+ * @param missing  ids that do not exist, also in request order
+ */
+public record AccountQueryResult(List<AccountView> accounts, List<UUID> missing) {
+}
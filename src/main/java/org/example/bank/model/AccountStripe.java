@@ -0,0 +1,33 @@
+package org.example.bank.model;
+
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Entity
+@Table(name = "account_stripe")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountStripe {
+    @EmbeddedId
+    private Key id;
+
+    private long balance;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID accountId;
+        private Integer stripe;
+    }
+}
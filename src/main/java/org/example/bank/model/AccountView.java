@@ -0,0 +1,64 @@
+package org.example.bank.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Read-only state of an account, built straight from a query projection instead of a managed entity,
+ * so Hibernate keeps no snapshot of it and never dirty checks it. Serializes the same way as {@link Account}.
+ *
+ * @param balance in minor units, stripes included
+ */
+@JsonSerialize(using = AccountView.Serializer.class)
+public record AccountView(UUID id,
+                          @JsonDeserialize(using = Money.Deserializer.class) long balance,
+                          Integer stripeCount) {
+
+    /**
+     * Detaches the state of an entity, e.g. the one an operation engine returned.
+     */
+    public static AccountView of(Account account) {
+        return new AccountView(account.getId(), account.getBalance(), account.getStripeCount());
+    }
+
+    public AccountView withBalance(long balance) {
+        return new AccountView(id, balance, stripeCount);
+    }
+
+    /**
+     * The schema is fixed, so the field names are encoded once and the balance is written without boxing,
+     * instead of going through the reflective bean serializer on every response.
+     */
+    public static class Serializer extends StdSerializer<AccountView> {
+        private static final SerializedString ID = new SerializedString("id");
+        private static final SerializedString BALANCE = new SerializedString("balance");
+        private static final SerializedString STRIPE_COUNT = new SerializedString("stripeCount");
+
+        public Serializer() {
+            super(AccountView.class);
+        }
+
+        @Override
+        public void serialize(AccountView value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(ID);
+            gen.writeString(value.id.toString());
+            gen.writeFieldName(BALANCE);
+            gen.writeNumber(Money.toDecimal(value.balance));
+            gen.writeFieldName(STRIPE_COUNT);
+            if (value.stripeCount == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(value.stripeCount);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.bank.model;
+
+/**
+ * Progress of a bulk balance job.
+ *
+ * @param parameter  rate in basis points or fee in minor units, see {@link BalanceJobType}
+ * @param chunks     number of keyset ranges, null while they are still being planned
+ * @param doneChunks ranges already committed
+ * @param accounts   accounts changed so far
+ */
+public record BalanceJob(String id,
+                         BalanceJobType type,
+                         long parameter,
+                         Status status,
+                         Integer chunks,
+                         int doneChunks,
+                         long accounts,
+                         String error) {
+
+    public enum Status {
+        PLANNING,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+}
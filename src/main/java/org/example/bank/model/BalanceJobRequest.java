@@ -0,0 +1,14 @@
+package org.example.bank.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+/**
+ * @param id     chosen by the caller, e.g. {@code interest-2026-10-17}; posting the same id again resumes that job
+ * @param amount fee per account for {@link BalanceJobType#FEE}
+ * @param rate   basis points for {@link BalanceJobType#INTEREST}
+ */
+public record BalanceJobRequest(String id,
+                                BalanceJobType type,
+                                @JsonDeserialize(using = Money.Deserializer.class) Long amount,
+                                Integer rate) {
+}
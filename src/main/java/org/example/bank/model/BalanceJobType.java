@@ -0,0 +1,35 @@
+package org.example.bank.model;
+
+/**
+ * What a bulk balance job does to every plain account it visits.
+ */
+public enum BalanceJobType {
+    /**
+     * Parameter is the rate in basis points, positive balances get {@code balance * rate / 10000}, rounded down.
+     */
+    INTEREST {
+        @Override
+        public long delta(long balance, long parameter) {
+            if (balance <= 0) {
+                return 0;
+            }
+            // split so the product cannot overflow for rates up to 100%
+            return balance / 10000 * parameter + balance % 10000 * parameter / 10000;
+        }
+    },
+
+    /**
+     * Parameter is the fee in minor units, never charged below zero.
+     */
+    FEE {
+        @Override
+        public long delta(long balance, long parameter) {
+            return -Math.min(parameter, Math.max(balance, 0));
+        }
+    };
+
+    /**
+     * @return the change to apply to {@code balance}, 0 to leave the account alone
+     */
+    public abstract long delta(long balance, long parameter);
+}
@@ -0,0 +1,33 @@
+package org.example.bank.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+    private Integer index;
+    private UUID accountId;
+    private Status status;
+    /**
+     * Balance right after this item, set for applied items.
+     */
+    @JsonSerialize(using = Money.Serializer.class)
+    private Long balance;
+    private String message;
+
+    public enum Status {
+        APPLIED,
+        REJECTED,
+        NOT_FOUND,
+        /**
+         * Valid on its own, but not committed because another item of an all-or-nothing batch failed.
+         */
+        ROLLED_BACK
+    }
+}
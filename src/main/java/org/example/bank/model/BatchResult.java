@@ -0,0 +1,15 @@
+package org.example.bank.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResult {
+    private Boolean committed;
+    private List<BatchItemResult> items;
+}
@@ -0,0 +1,39 @@
+package org.example.bank.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One applied operation as seen by one account. A transfer gives two entries, a debit for the source
+ * and a credit for the target, each naming the other account as counterparty.
+ *
+ * @param seq     position in the history, also the pagination cursor; null until stored
+ * @param amount  signed, in minor units
+ * @param balance of the account right after the operation
+ */
+public record HistoryEntry(Long seq,
+                           UUID accountId,
+                           OperationType type,
+                           @JsonSerialize(using = Money.Serializer.class) long amount,
+                           @JsonSerialize(using = Money.Serializer.class) long balance,
+                           UUID counterpartyId,
+                           Instant createdAt) {
+
+    /**
+     * Entry of a deposit or withdrawal, or the debit of a transfer.
+     */
+    public static HistoryEntry of(Operation operation, long balance) {
+        return new HistoryEntry(null, operation.getAccountId(), operation.getType(), operation.applyTo(0L), balance,
+                operation.getTargetAccountId(), null);
+    }
+
+    /**
+     * Entry of the target account of a transfer.
+     */
+    public static HistoryEntry credit(Operation transfer, long balance) {
+        return new HistoryEntry(null, transfer.getTargetAccountId(), transfer.getType(), transfer.getAmount(), balance,
+                transfer.getAccountId(), null);
+    }
+}
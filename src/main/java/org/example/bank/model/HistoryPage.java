@@ -0,0 +1,9 @@
+package org.example.bank.model;
+
+import java.util.List;
+
+/**
+ * @param next cursor for the following page, passed back as {@code before}; null on the last page
+ */
+public record HistoryPage(List<HistoryEntry> items, Long next) {
+}
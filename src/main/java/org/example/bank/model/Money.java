@@ -0,0 +1,100 @@
+package org.example.bank.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.example.bank.model.exception.AmountOverflowException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Money is kept as a primitive {@code long} of minor units, so balance arithmetic is exact and does not allocate.
+ * Only JSON speaks major units: {@code 20.5} in a request is 2050 minor units, and is written back as {@code 20.50}.
+ */
+public final class Money {
+    /**
+     * Decimal places of the currency, minor units per major unit is 10^SCALE.
+     */
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    public static long add(long balance, long amount) {
+        try {
+            return Math.addExact(balance, amount);
+        } catch (ArithmeticException e) {
+            throw new AmountOverflowException(balance, amount);
+        }
+    }
+
+    public static long subtract(long balance, long amount) {
+        try {
+            return Math.subtractExact(balance, amount);
+        } catch (ArithmeticException e) {
+            throw new AmountOverflowException(balance, amount);
+        }
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * @throws ArithmeticException when the amount has more decimal places than the currency or does not fit
+     */
+    public static long toMinorUnits(BigDecimal majorUnits) {
+        return majorUnits.movePointRight(SCALE).longValueExact();
+    }
+
+    public static class Serializer extends StdSerializer<Long> {
+
+        public Serializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public void serialize(Long value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(toDecimal(value));
+        }
+    }
+
+    /**
+     * Reads the decimal text as is, never through a double.
+     */
+    public static class Deserializer extends StdDeserializer<Long> {
+
+        public Deserializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            final BigDecimal majorUnits;
+            switch (p.currentToken()) {
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> majorUnits = p.getDecimalValue();
+                case VALUE_STRING -> {
+                    try {
+                        majorUnits = new BigDecimal(p.getText().trim());
+                    } catch (NumberFormatException e) {
+                        throw ctxt.weirdStringException(p.getText(), Long.class, "not a decimal amount");
+                    }
+                }
+                default -> {
+                    return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+                }
+            }
+
+            try {
+                return toMinorUnits(majorUnits);
+            } catch (ArithmeticException e) {
+                throw ctxt.weirdNumberException(majorUnits, Long.class,
+                        "amount should have at most " + SCALE + " decimal places and fit into the balance range");
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.bank.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,5 +14,33 @@ import java.util.UUID;
 public class Operation {
     private UUID accountId;
     private OperationType type;
-    private Double amount;
+    /**
+     * In minor units, see {@link Money}.
+     */
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long amount;
+    /**
+     * Receiving account of a TRANSFER, unused otherwise.
+     */
+    private UUID targetAccountId;
+
+    public Operation(UUID accountId, OperationType type, long amount) {
+        this(accountId, type, amount, null);
+    }
+
+    /**
+     * Balance of accountId after the operation; a transfer debits it.
+     */
+    public long applyTo(long balance) {
+        switch (type) {
+            case DEPOSIT:
+                return Money.add(balance, amount);
+            case WITHDRAW:
+            case TRANSFER:
+                return Money.subtract(balance, amount);
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
 }
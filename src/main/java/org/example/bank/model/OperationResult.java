@@ -0,0 +1,29 @@
+package org.example.bank.model;
+
+import org.example.bank.model.exception.CommonException;
+
+/**
+ * Outcome of one operation: the account after it or the business rejection.
+ * Lets callers that turn rejections into a response skip throwing them.
+ */
+public record OperationResult(AccountView account, CommonException rejection) {
+
+    public static OperationResult applied(AccountView account) {
+        return new OperationResult(account, null);
+    }
+
+    public static OperationResult rejected(CommonException rejection) {
+        return new OperationResult(null, rejection);
+    }
+
+    public boolean isApplied() {
+        return rejection == null;
+    }
+
+    public AccountView orElseThrow() {
+        if (rejection != null) {
+            throw rejection;
+        }
+        return account;
+    }
+}
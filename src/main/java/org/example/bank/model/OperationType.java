@@ -5,7 +5,11 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public enum OperationType {
     DEPOSIT(1),
-    WITHDRAW(2);
+    WITHDRAW(2),
+    /**
+     * Moves the amount from accountId to targetAccountId.
+     */
+    TRANSFER(3);
 
     private final Integer id;
 }
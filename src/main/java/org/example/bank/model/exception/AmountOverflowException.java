@@ -0,0 +1,12 @@
+package org.example.bank.model.exception;
+
+import org.example.bank.model.Money;
+
+public class AmountOverflowException extends CommonException {
+    private static final String TEMPL_ERROR_MSG_OVERFLOW =
+            "Amount %s does not fit into balance %s";
+
+    public AmountOverflowException(long balance, long amount) {
+        super(TEMPL_ERROR_MSG_OVERFLOW, Money.toDecimal(amount), Money.toDecimal(balance));
+    }
+}
@@ -1,11 +1,13 @@
 package org.example.bank.model.exception;
 
 
+import org.example.bank.model.Money;
+
 public class AmountValueException extends CommonException {
     private static final String TEMPL_ERROR_MSG_NOT_ENOUGH =
-            "Amount should be greater than 0 but your is %f";
+            "Amount should be greater than 0 but your is %s";
     
-    public AmountValueException(Double amount) {
-        super(String.format(TEMPL_ERROR_MSG_NOT_ENOUGH, amount));
+    public AmountValueException(long amount) {
+        super(TEMPL_ERROR_MSG_NOT_ENOUGH, Money.toDecimal(amount));
     }
 }
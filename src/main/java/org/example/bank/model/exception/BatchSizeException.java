@@ -0,0 +1,11 @@
+package org.example.bank.model.exception;
+
+
+public class BatchSizeException extends CommonException {
+    private static final String TEMPL_ERROR_MSG_BATCH_SIZE =
+            "Batch should contain from 1 to %d operations but your has %d";
+
+    public BatchSizeException(Integer maxSize, Integer size) {
+        super(TEMPL_ERROR_MSG_BATCH_SIZE, maxSize, size);
+    }
+}
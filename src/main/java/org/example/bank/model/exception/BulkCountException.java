@@ -0,0 +1,11 @@
+package org.example.bank.model.exception;
+
+
+public class BulkCountException extends CommonException {
+    private static final String TEMPL_ERROR_MSG_BULK_COUNT =
+            "Bulk count should be between 1 and %d but your is %d";
+
+    public BulkCountException(Integer maxCount, Integer count) {
+        super(TEMPL_ERROR_MSG_BULK_COUNT, maxCount, count);
+    }
+}
@@ -1,9 +1,26 @@
 package org.example.bank.model.exception;
 
+/**
+ * Business rejection, mapped to 400. Rejections are part of normal traffic, so they carry
+ * no stack trace and only format their message when it is read.
+ */
 public class CommonException extends RuntimeException {
+    private final String template;
+    private final Object[] args;
 
     public CommonException(String message) {
-        super(message);
+        this(message, (Object[]) null);
+    }
+
+    protected CommonException(String template, Object... args) {
+        super(null, null, false, false);
+        this.template = template;
+        this.args = args;
+    }
+
+    @Override
+    public String getMessage() {
+        return args == null ? template : String.format(template, args);
     }
 
 }
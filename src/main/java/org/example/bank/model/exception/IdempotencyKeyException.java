@@ -0,0 +1,21 @@
+package org.example.bank.model.exception;
+
+
+public class IdempotencyKeyException extends CommonException {
+    private static final String TEMPL_ERROR_MSG_KEY_REUSED =
+            "Idempotency key %s was already used for another operation";
+    private static final String TEMPL_ERROR_MSG_KEY_LENGTH =
+            "Idempotency key should be from 1 to %d characters but your has %d";
+
+    private IdempotencyKeyException(String template, Object... args) {
+        super(template, args);
+    }
+
+    public static IdempotencyKeyException reused(String key) {
+        return new IdempotencyKeyException(TEMPL_ERROR_MSG_KEY_REUSED, key);
+    }
+
+    public static IdempotencyKeyException length(Integer maxLength, Integer length) {
+        return new IdempotencyKeyException(TEMPL_ERROR_MSG_KEY_LENGTH, maxLength, length);
+    }
+}
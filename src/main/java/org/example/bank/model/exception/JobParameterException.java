@@ -0,0 +1,11 @@
+package org.example.bank.model.exception;
+
+
+public class JobParameterException extends CommonException {
+    private static final String TEMPL_ERROR_MSG_JOB_PARAMETER =
+            "Job %s is invalid: %s";
+
+    public JobParameterException(String field, String reason) {
+        super(TEMPL_ERROR_MSG_JOB_PARAMETER, field, reason);
+    }
+}
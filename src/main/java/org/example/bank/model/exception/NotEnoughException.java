@@ -1,12 +1,14 @@
 package org.example.bank.model.exception;
 
+import org.example.bank.model.Money;
+
 import java.util.UUID;
 
 public class NotEnoughException extends CommonException{
     private static final String TEMPL_ERROR_MSG_NOT_ENOUGH =
-            "There are not balance in account with id %s. Balance is %f but amount to withdraw is %f";
+            "There are not balance in account with id %s. Balance is %s but amount to withdraw is %s";
 
-    public NotEnoughException(UUID accountId, Double balance, Double amount) {
-        super(String.format(TEMPL_ERROR_MSG_NOT_ENOUGH, accountId, balance, amount));
+    public NotEnoughException(UUID accountId, long balance, long amount) {
+        super(TEMPL_ERROR_MSG_NOT_ENOUGH, accountId, Money.toDecimal(balance), Money.toDecimal(amount));
     }
 }
@@ -0,0 +1,11 @@
+package org.example.bank.model.exception;
+
+
+public class OperationFieldException extends CommonException {
+    private static final String TEMPL_ERROR_MSG_FIELD =
+            "Operation field %s is required";
+
+    public OperationFieldException(String field) {
+        super(TEMPL_ERROR_MSG_FIELD, field);
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.bank.model.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is shed by admission control. Shedding has to stay cheap,
+ * so the exception does not capture a stack trace.
+ */
+@Getter
+public class OverloadedException extends RuntimeException {
+    private static final String ERROR_MSG_OVERLOADED = "Service is overloaded, retry later";
+
+    private final Duration retryAfter;
+
+    public OverloadedException(Duration retryAfter) {
+        super(ERROR_MSG_OVERLOADED, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.bank.model.exception;
+
+
+public class PageSizeException extends CommonException {
+    private static final String TEMPL_ERROR_MSG_PAGE_SIZE =
+            "Page size should be between 1 and %d but your is %d";
+
+    public PageSizeException(Integer maxSize, Integer size) {
+        super(TEMPL_ERROR_MSG_PAGE_SIZE, maxSize, size);
+    }
+}
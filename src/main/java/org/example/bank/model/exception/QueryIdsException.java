@@ -0,0 +1,11 @@
+package org.example.bank.model.exception;
+
+
+public class QueryIdsException extends CommonException {
+    private static final String TEMPL_ERROR_MSG_QUERY_IDS =
+            "Number of ids should be between 1 and %d but your is %d";
+
+    public QueryIdsException(Integer maxIds, Integer count) {
+        super(TEMPL_ERROR_MSG_QUERY_IDS, maxIds, count);
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.bank.model.exception;
+
+
+public class StripeCountException extends CommonException {
+    private static final String TEMPL_ERROR_MSG_STRIPE_COUNT =
+            "Stripe count should be between 2 and %d but your is %d";
+
+    public StripeCountException(Integer maxCount, Integer count) {
+        super(TEMPL_ERROR_MSG_STRIPE_COUNT, maxCount, count);
+    }
+}
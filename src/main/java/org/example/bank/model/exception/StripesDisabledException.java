@@ -0,0 +1,11 @@
+package org.example.bank.model.exception;
+
+
+public class StripesDisabledException extends CommonException {
+    private static final String ERROR_MSG_STRIPES_DISABLED =
+            "Stripes are disabled, operations would not be routed to them";
+
+    public StripesDisabledException() {
+        super(ERROR_MSG_STRIPES_DISABLED);
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.bank.model.exception;
+
+
+public class StripesUnsupportedException extends CommonException {
+    private static final String ERROR_MSG_STRIPES_UNSUPPORTED =
+            "Stripes are not supported in write-behind mode, balances there are kept in memory";
+
+    public StripesUnsupportedException() {
+        super(ERROR_MSG_STRIPES_UNSUPPORTED);
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.bank.model.exception;
+
+import java.util.UUID;
+
+public class TransferTargetException extends CommonException {
+    private static final String TEMPL_ERROR_MSG_TARGET =
+            "Transfer from account with id %s needs another target account but your is %s";
+
+    public TransferTargetException(UUID accountId, UUID targetAccountId) {
+        super(TEMPL_ERROR_MSG_TARGET, accountId, targetAccountId);
+    }
+}
@@ -0,0 +1,252 @@
+package org.example.bank.ownership;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bank.config.OwnershipProperties;
+import org.example.bank.controller.ErrorResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends single-account requests (GET /api/v1/wallet/{id}, POST /api/v1/wallet) to the instance owning the account.
+ * With {@code on-miss=forward} the request is proxied and the owner's response relayed; an unreachable owner is
+ * answered locally, except for an unkeyed operation the owner may have received, which gets a 504. With
+ * {@code on-miss=redirect} the caller gets a 307 to the owner. Either way the owner's base URL comes back in
+ * {@code X-Bank-Owner}, so a client can go there directly next time. Requests that were already
+ * forwarded once are always served locally, so a stale view of the leases cannot bounce a request around.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bank.ownership", name = "enabled", havingValue = "true")
+public class AffinityFilter extends OncePerRequestFilter {
+    public static final String FORWARDED_BY = "X-Bank-Forwarded-By";
+    public static final String OWNER = "X-Bank-Owner";
+    private static final Pattern GET_PATH = Pattern.compile("/api/v1/wallet/([0-9a-fA-F-]{36})");
+    private static final String POST_PATH = "/api/v1/wallet";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final List<String> FORWARDED_HEADERS =
+            List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT, IDEMPOTENCY_KEY);
+    private static final List<String> RELAYED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.RETRY_AFTER);
+
+    private final OwnershipLeases leases;
+    private final ObjectMapper objectMapper;
+    private final RestClient restClient;
+    private final String instanceId;
+    private final boolean redirect;
+
+    public AffinityFilter(OwnershipLeases leases,
+                          ObjectMapper objectMapper,
+                          OwnershipProperties properties,
+                          RestClient.Builder restClientBuilder) {
+        this.leases = leases;
+        this.objectMapper = objectMapper;
+        this.instanceId = properties.getInstanceId();
+        this.redirect = "redirect".equals(properties.getOnMiss());
+        final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getForwardTimeout());
+        requestFactory.setReadTimeout(properties.getForwardTimeout());
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        return request.getHeader(FORWARDED_BY) != null
+                || !(HttpMethod.GET.matches(request.getMethod()) && GET_PATH.matcher(path).matches()
+                || HttpMethod.POST.matches(request.getMethod()) && POST_PATH.equals(path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        byte[] body = null;
+        final UUID accountId;
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            final Matcher matcher = GET_PATH.matcher(path);
+            accountId = matcher.matches() ? parse(matcher.group(1)) : null;
+        } else {
+            body = request.getInputStream().readAllBytes();
+            accountId = accountId(body);
+            request = new CachedBodyRequest(request, body);
+        }
+
+        final String ownerUrl = accountId == null ? null : leases.ownerUrl(accountId);
+        if (ownerUrl == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final String target = ownerUrl + path + (request.getQueryString() == null ? "" : "?" + request.getQueryString());
+        if (redirect) {
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader(HttpHeaders.LOCATION, target);
+            response.setHeader(OWNER, ownerUrl);
+            return;
+        }
+
+        try {
+            forward(request, body, ownerUrl, target, response);
+        } catch (ResourceAccessException e) {
+            if (response.isCommitted()) {
+                // part of the owner's answer is already out
+                throw e;
+            }
+            response.reset();
+            if (!isSafeToServeLocally(request, e)) {
+                log.warn("Forwarded operation got no answer from {}, it may have been applied there", ownerUrl, e);
+                response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+                response.setHeader(OWNER, ownerUrl);
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                        HttpStatus.GATEWAY_TIMEOUT.value(), "Owner " + ownerUrl + " did not answer in time"));
+                return;
+            }
+            // owner unreachable, most likely dead with its lease not expired yet; the database is authoritative
+            log.debug("Failed to forward to {}, serving locally", ownerUrl, e);
+            chain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * Whether the owner cannot have applied the request: reads, keyed operations (the key claim is shared through
+     * the database) and requests whose connection was never established. An operation that timed out waiting for
+     * the answer may have been applied by the owner and would be applied twice.
+     */
+    private static boolean isSafeToServeLocally(HttpServletRequest request, ResourceAccessException e) {
+        if (HttpMethod.GET.matches(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY) != null) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException
+                    || cause instanceof NoRouteToHostException
+                    || cause instanceof UnknownHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void forward(HttpServletRequest request, byte[] body, String ownerUrl, String target,
+                         HttpServletResponse response) {
+        final RestClient.RequestBodySpec spec = restClient.method(HttpMethod.valueOf(request.getMethod()))
+                .uri(URI.create(target))
+                .headers(headers -> {
+                    FORWARDED_HEADERS.forEach(name -> {
+                        final String value = request.getHeader(name);
+                        if (value != null) {
+                            headers.set(name, value);
+                        }
+                    });
+                    headers.set(FORWARDED_BY, instanceId);
+                });
+        if (body != null) {
+            spec.body(body);
+        }
+        spec.exchange((clientRequest, clientResponse) -> {
+            response.setStatus(clientResponse.getStatusCode().value());
+            response.setHeader(OWNER, ownerUrl);
+            RELAYED_HEADERS.forEach(name -> {
+                final String value = clientResponse.getHeaders().getFirst(name);
+                if (value != null) {
+                    response.setHeader(name, value);
+                }
+            });
+            clientResponse.getBody().transferTo(response.getOutputStream());
+            return null;
+        });
+    }
+
+    private UUID accountId(byte[] body) {
+        try {
+            final JsonNode accountId = objectMapper.readTree(body).path("accountId");
+            return accountId.isTextual() ? parse(accountId.asText()) : null;
+        } catch (IOException e) {
+            // malformed body, the controller reports it
+            return null;
+        }
+    }
+
+    private static UUID parse(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            final ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
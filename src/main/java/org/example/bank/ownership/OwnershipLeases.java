@@ -0,0 +1,133 @@
+package org.example.bank.ownership;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bank.config.OwnershipProperties;
+import org.example.bank.repository.OwnershipLeaseRepository;
+import org.example.bank.repository.OwnershipLeaseRepository.Lease;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Splits account ids into hash ranges and keeps this instance's share of them leased in ownership_lease.
+ * <p>
+ * Every renewal refreshes this instance's heartbeat in ownership_member and extends the leases it still holds,
+ * then evens out the split: the fair share is the number of ranges over the number of live instances. An instance above it releases the
+ * surplus, one below it claims free or expired ranges. A new instance therefore gets its share within two
+ * renewals, and the ranges of an instance that stopped renewing are taken over once its leases expire.
+ * <p>
+ * Ownership is an affinity hint only: the database stays authoritative, so an account served by a
+ * non-owner during a handover is slower, not wrong.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bank.ownership", name = "enabled", havingValue = "true")
+public class OwnershipLeases {
+    private final OwnershipLeaseRepository repository;
+    private final String instanceId;
+    private final String advertisedUrl;
+    private final int ranges;
+    private final long leaseMillis;
+    private volatile Lease[] leases;
+
+    public OwnershipLeases(OwnershipLeaseRepository repository, OwnershipProperties properties) {
+        this.repository = repository;
+        this.instanceId = properties.getInstanceId();
+        this.advertisedUrl = properties.getAdvertisedUrl();
+        this.ranges = properties.getRanges();
+        this.leaseMillis = properties.getLeaseDuration().toMillis();
+        this.leases = new Lease[ranges];
+        repository.createRanges(ranges);
+    }
+
+    @Scheduled(fixedDelayString = "${bank.ownership.renew-interval:3000}")
+    public void renew() {
+        try {
+            rebalance(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            // leases not renewed in time simply expire and are taken over
+            log.warn("Failed to renew ownership leases of {}", instanceId, e);
+        }
+    }
+
+    /**
+     * @return base URL of the instance owning the account, or null when this instance should serve it:
+     * it owns the account, or nobody holds a live lease on it
+     */
+    public String ownerUrl(UUID accountId) {
+        final Lease lease = leases[rangeOf(accountId)];
+        if (lease == null || lease.owner() == null || instanceId.equals(lease.owner())
+                || lease.expiresAt() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return lease.ownerUrl();
+    }
+
+    public Set<Integer> ownedRanges() {
+        final Set<Integer> owned = new HashSet<>();
+        final long now = System.currentTimeMillis();
+        for (Lease lease : leases) {
+            if (lease != null && instanceId.equals(lease.owner()) && lease.expiresAt() > now) {
+                owned.add(lease.rangeId());
+            }
+        }
+        return owned;
+    }
+
+    public int rangeOf(UUID accountId) {
+        return Math.floorMod(accountId.hashCode(), ranges);
+    }
+
+    /**
+     * Gives the leases up at shutdown, so the other instances take over without waiting for expiry.
+     */
+    @PreDestroy
+    public void releaseAll() {
+        try {
+            repository.releaseAll(instanceId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release ownership leases of {}", instanceId, e);
+        }
+    }
+
+    private void rebalance(long now) {
+        final long expiresAt = now + leaseMillis;
+        repository.heartbeat(instanceId, expiresAt);
+        repository.renew(instanceId, advertisedUrl, expiresAt, ranges);
+
+        final List<Lease> current = repository.findAll(ranges);
+        final int members = repository.countLiveMembers(now, instanceId);
+        final List<Lease> owned = new ArrayList<>();
+        final List<Lease> free = new ArrayList<>();
+        for (Lease lease : current) {
+            if (lease.owner() == null || lease.expiresAt() <= now) {
+                free.add(lease);
+            } else if (instanceId.equals(lease.owner())) {
+                owned.add(lease);
+            }
+        }
+
+        final int fairShare = (ranges + members - 1) / members;
+        // surplus goes from the highest ranges down, claims from the lowest up
+        for (int i = owned.size() - 1; i >= fairShare; i--) {
+            repository.release(owned.get(i).rangeId(), instanceId);
+        }
+        int claimed = owned.size();
+        for (int i = 0; i < free.size() && claimed < fairShare; i++) {
+            if (repository.claim(free.get(i).rangeId(), instanceId, advertisedUrl, now, expiresAt)) {
+                claimed++;
+            }
+        }
+
+        final Lease[] snapshot = new Lease[ranges];
+        repository.findAll(ranges).forEach(lease -> snapshot[lease.rangeId()] = lease);
+        leases = snapshot;
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.bank.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.model.Account;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Plain JDBC balance access: lock-free reads and compare-and-set for writers that keep balances in memory,
+ * keyset scans and relative batch updates for bulk jobs.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AccountBalanceRepository {
+    private static final String SELECT_BY_IDS =
+            "select id, balance, stripe_count from account where id in (%s)";
+    private static final String COMPARE_AND_SET =
+            "update account set balance = ?, version = version + 1 where id = ? and balance = ?";
+    private static final String SELECT_KEY_AT =
+            "select id from account where id > ? order by id offset ? rows fetch next 1 rows only";
+    private static final String SELECT_FIRST_KEY_AT =
+            "select id from account order by id offset ? rows fetch next 1 rows only";
+    private static final String SELECT_LAST_KEY =
+            "select max(id) from account where id > ?";
+    private static final String SELECT_FIRST_LAST_KEY =
+            "select max(id) from account";
+    // balance as the journal engine reports it; in the other modes the journal is empty
+    private static final String SELECT_PLAIN_RANGE_AND_LOCK =
+            "select a.id, a.balance + coalesce((select sum(j.amount) from operation_journal j " +
+            "where j.account_id = a.id), 0) " +
+            "from account a where %s a.id <= ? and a.stripe_count = 0 order by a.id for update";
+    private static final String ADD =
+            "update account set balance = balance + ?, version = version + 1 where id = ?";
+    private static final String DEPOSIT_RETURNING =
+            "update account set balance = balance + ?, version = version + 1 where id = ? " +
+            "returning id, balance, stripe_count";
+    private static final String WITHDRAW_RETURNING =
+            "update account set balance = balance - ?, version = version + 1 where id = ? and balance >= ? " +
+            "returning id, balance, stripe_count";
+    private static final RowMapper<Account> ACCOUNT_MAPPER = (rs, rowNum) -> {
+        final Account account = new Account();
+        account.setId(rs.getObject(1, UUID.class));
+        account.setBalance(rs.getLong(2));
+        account.setStripeCount(rs.getInt(3));
+        return account;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean returningSupported;
+
+    public List<Account> findAllById(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        final String sql = String.format(SELECT_BY_IDS, String.join(", ", Collections.nCopies(ids.size(), "?")));
+        return jdbcTemplate.query(sql, ACCOUNT_MAPPER, ids.toArray());
+    }
+
+    /**
+     * UPDATE ... RETURNING hands back the new balance with the update itself. PostgreSQL has it, H2 does not.
+     */
+    public boolean supportsReturning() {
+        Boolean supported = returningSupported;
+        if (supported == null) {
+            supported = "PostgreSQL".equals(jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+            returningSupported = supported;
+        }
+        return supported;
+    }
+
+    /**
+     * Only where {@link #supportsReturning()}.
+     *
+     * @return the account after the deposit, empty when it does not exist
+     */
+    public Optional<Account> depositReturning(UUID id, long amount) {
+        return jdbcTemplate.query(DEPOSIT_RETURNING, ACCOUNT_MAPPER, amount, id).stream().findFirst();
+    }
+
+    /**
+     * Only where {@link #supportsReturning()}.
+     *
+     * @return the account after the withdrawal, empty when it does not exist or holds less than {@code amount}
+     */
+    public Optional<Account> withdrawReturning(UUID id, long amount) {
+        return jdbcTemplate.query(WITHDRAW_RETURNING, ACCOUNT_MAPPER, amount, id, amount).stream().findFirst();
+    }
+
+    /**
+     * Applies the updates in the given order, each only if the row still holds the expected balance.
+     *
+     * @return update counts, 0 for rows that changed underneath
+     */
+    public int[] compareAndSet(List<BalanceUpdate> updates) {
+        if (updates.isEmpty()) {
+            return new int[0];
+        }
+        // one JDBC batch for all updates
+        return jdbcTemplate.batchUpdate(COMPARE_AND_SET, updates, updates.size(), (ps, update) -> {
+            ps.setLong(1, update.balance());
+            ps.setObject(2, update.accountId());
+            ps.setLong(3, update.expected());
+        })[0];
+    }
+
+    /**
+     * Keyset step: the id {@code offset} rows after {@code fromId} in id order, reading the primary key index only.
+     *
+     * @param fromId null to start from the first account
+     */
+    public Optional<UUID> findKeyAt(UUID fromId, int offset) {
+        final List<UUID> ids = fromId == null
+                ? jdbcTemplate.queryForList(SELECT_FIRST_KEY_AT, UUID.class, offset)
+                : jdbcTemplate.queryForList(SELECT_KEY_AT, UUID.class, fromId, offset);
+        return ids.stream().findFirst();
+    }
+
+    public Optional<UUID> findLastKey(UUID fromId) {
+        return Optional.ofNullable(fromId == null
+                ? jdbcTemplate.queryForObject(SELECT_FIRST_LAST_KEY, UUID.class)
+                : jdbcTemplate.queryForObject(SELECT_LAST_KEY, UUID.class, fromId));
+    }
+
+    /**
+     * Locks the plain accounts with {@code fromId < id <= toId} in id order, i.e. in {@code AccountLockOrder}.
+     * Striped accounts are left out: their balance is spread over rows that are written without the account lock.
+     */
+    public List<Balance> findPlainInRangeAndLock(UUID fromId, UUID toId) {
+        final RowMapper<Balance> mapper = (rs, rowNum) -> new Balance(rs.getObject(1, UUID.class), rs.getLong(2));
+        return fromId == null
+                ? jdbcTemplate.query(String.format(SELECT_PLAIN_RANGE_AND_LOCK, ""), mapper, toId)
+                : jdbcTemplate.query(String.format(SELECT_PLAIN_RANGE_AND_LOCK, "a.id > ? and"), mapper, fromId, toId);
+    }
+
+    /**
+     * Adds to the row balances as one JDBC batch, relative so nothing read earlier is written back.
+     */
+    public void add(List<BalanceDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(ADD, deltas, deltas.size(), (ps, delta) -> {
+            ps.setLong(1, delta.delta());
+            ps.setObject(2, delta.accountId());
+        });
+    }
+
+    public record Balance(UUID accountId, long balance) {
+    }
+
+    public record BalanceDelta(UUID accountId, long delta) {
+    }
+
+    public record BalanceUpdate(UUID accountId, long expected, long balance) {
+    }
+}
@@ -4,10 +4,13 @@ import jakarta.persistence.LockModeType;
 import org.example.bank.model.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,4 +21,30 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
     @Query("SELECT a FROM Account a WHERE a.id = :id")
     Optional<Account> findByIdAndLock(@Param("id") UUID id);
 
+    /**
+     * Rows are locked in ORDER BY order, which matches {@code AccountLockOrder}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id IN :ids ORDER BY a.id")
+    List<Account> findAllByIdInAndLock(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT a.stripeCount FROM Account a WHERE a.id = :id")
+    Optional<Integer> findStripeCountById(@Param("id") UUID id);
+
+    /**
+     * Row balance plus the stripes of a striped account.
+     */
+    @Query("SELECT a.balance + (SELECT COALESCE(SUM(s.balance), 0L) FROM AccountStripe s WHERE s.id.accountId = a.id) " +
+            "FROM Account a WHERE a.id = :id")
+    Optional<Long> findTotalBalanceById(@Param("id") UUID id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount, a.version = a.version + 1 WHERE a.id = :id")
+    int deposit(@Param("id") UUID id, @Param("amount") long amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount, a.version = a.version + 1 " +
+            "WHERE a.id = :id AND a.balance >= :amount")
+    int withdraw(@Param("id") UUID id, @Param("amount") long amount);
+
 }
@@ -0,0 +1,35 @@
+package org.example.bank.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.bank.model.AccountStripe;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AccountStripeRepository extends JpaRepository<AccountStripe, AccountStripe.Key> {
+
+    /**
+     * Stripes are always locked in stripe order, so two sweeps over one account cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountStripe s WHERE s.id.accountId = :accountId ORDER BY s.id.stripe")
+    List<AccountStripe> findAllByAccountIdAndLock(@Param("accountId") UUID accountId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AccountStripe s SET s.balance = s.balance + :amount " +
+            "WHERE s.id.accountId = :accountId AND s.id.stripe = :stripe")
+    int deposit(@Param("accountId") UUID accountId, @Param("stripe") Integer stripe, @Param("amount") long amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AccountStripe s SET s.balance = s.balance - :amount " +
+            "WHERE s.id.accountId = :accountId AND s.id.stripe = :stripe AND s.balance >= :amount")
+    int withdraw(@Param("accountId") UUID accountId, @Param("stripe") Integer stripe, @Param("amount") long amount);
+
+}
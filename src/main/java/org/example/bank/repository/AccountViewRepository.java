@@ -0,0 +1,48 @@
+package org.example.bank.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.model.AccountView;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read paths that only serialize the account. Plain JDBC straight into {@link AccountView}: no entity,
+ * no persistence context snapshot and no JPQL query object per call. The balance includes the stripes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AccountViewRepository {
+    private static final String SELECT_VIEW =
+            "select a.id, a.balance + coalesce((select sum(s.balance) from account_stripe s " +
+                    "where s.account_id = a.id), 0), a.stripe_count from account a ";
+    private static final String SELECT_BY_ID = SELECT_VIEW + "where a.id = ?";
+    private static final String SELECT_BY_IDS = SELECT_VIEW + "where a.id in (%s)";
+    private static final RowMapper<AccountView> VIEW_MAPPER = (rs, rowNum) ->
+            new AccountView(rs.getObject(1, UUID.class), rs.getLong(2), rs.getInt(3));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<AccountView> findById(UUID id) {
+        return jdbcTemplate.query(SELECT_BY_ID, VIEW_MAPPER, id)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Ids that do not exist are left out.
+     */
+    public List<AccountView> findAllById(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        final String sql = String.format(SELECT_BY_IDS, String.join(", ", Collections.nCopies(ids.size(), "?")));
+        return jdbcTemplate.query(sql, VIEW_MAPPER, ids.toArray());
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.bank.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.model.BalanceJob;
+import org.example.bank.model.BalanceJobType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Rows of balance_job and its checkpoint table balance_job_chunk.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BalanceJobRepository {
+    private static final String INSERT =
+            "insert into balance_job (id, type, parameter, status) values (?, ?, ?, 'PLANNING')";
+    private static final String SELECT =
+            "select j.id, j.type, j.parameter, j.status, j.chunk_count, j.error, " +
+            "(select count(*) from balance_job_chunk c where c.job_id = j.id and c.done = true), " +
+            "(select coalesce(sum(c.accounts), 0) from balance_job_chunk c where c.job_id = j.id) " +
+            "from balance_job j where j.id = ?";
+    private static final String SELECT_UNFINISHED =
+            "select id from balance_job where status in ('PLANNING', 'RUNNING') order by created_at";
+    private static final String UPDATE_STATUS =
+            "update balance_job set status = ?, error = ? where id = ?";
+    private static final String FINISH_PLANNING =
+            "update balance_job set status = 'RUNNING', chunk_count = ? where id = ?";
+    private static final String FINISH =
+            "update balance_job set status = 'DONE', error = null, finished_at = current_timestamp where id = ?";
+    private static final String SELECT_LAST_CHUNK =
+            "select job_id, chunk_no, from_id, to_id from balance_job_chunk where job_id = ? " +
+            "order by chunk_no desc fetch first 1 rows only";
+    private static final String INSERT_CHUNK =
+            "insert into balance_job_chunk (job_id, chunk_no, from_id, to_id) values (?, ?, ?, ?)";
+    private static final String SELECT_PENDING_CHUNKS =
+            "select job_id, chunk_no, from_id, to_id from balance_job_chunk where job_id = ? and done = false " +
+            "order by chunk_no";
+    private static final String LOCK_CHUNK =
+            "select done from balance_job_chunk where job_id = ? and chunk_no = ? for update";
+    private static final String MARK_DONE =
+            "update balance_job_chunk set done = true, accounts = ? where job_id = ? and chunk_no = ?";
+    private static final RowMapper<Chunk> CHUNK_MAPPER = (rs, rowNum) -> new Chunk(
+            rs.getString(1), rs.getInt(2), rs.getObject(3, UUID.class), rs.getObject(4, UUID.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @throws org.springframework.dao.DuplicateKeyException when a job with this id exists
+     */
+    public void insert(String id, BalanceJobType type, long parameter) {
+        jdbcTemplate.update(INSERT, id, type.name(), parameter);
+    }
+
+    public Optional<BalanceJob> find(String id) {
+        return jdbcTemplate.query(SELECT, (rs, rowNum) -> new BalanceJob(
+                        rs.getString(1),
+                        BalanceJobType.valueOf(rs.getString(2)),
+                        rs.getLong(3),
+                        BalanceJob.Status.valueOf(rs.getString(4)),
+                        rs.getObject(5, Integer.class),
+                        rs.getInt(7),
+                        rs.getLong(8),
+                        rs.getString(6)), id)
+                .stream()
+                .findFirst();
+    }
+
+    public List<String> findUnfinished() {
+        return jdbcTemplate.queryForList(SELECT_UNFINISHED, String.class);
+    }
+
+    public void updateStatus(String id, BalanceJob.Status status, String error) {
+        jdbcTemplate.update(UPDATE_STATUS, status.name(), error, id);
+    }
+
+    public void finishPlanning(String id, int chunkCount) {
+        jdbcTemplate.update(FINISH_PLANNING, chunkCount, id);
+    }
+
+    public void finish(String id) {
+        jdbcTemplate.update(FINISH, id);
+    }
+
+    public Optional<Chunk> findLastChunk(String jobId) {
+        return jdbcTemplate.query(SELECT_LAST_CHUNK, CHUNK_MAPPER, jobId)
+                .stream()
+                .findFirst();
+    }
+
+    public void insertChunks(List<Chunk> chunks) {
+        jdbcTemplate.batchUpdate(INSERT_CHUNK, chunks, chunks.size(), (ps, chunk) -> {
+            ps.setString(1, chunk.jobId());
+            ps.setInt(2, chunk.chunkNo());
+            ps.setObject(3, chunk.fromId());
+            ps.setObject(4, chunk.toId());
+        });
+    }
+
+    public List<Chunk> findPendingChunks(String jobId) {
+        return jdbcTemplate.query(SELECT_PENDING_CHUNKS, CHUNK_MAPPER, jobId);
+    }
+
+    /**
+     * Locks the checkpoint row until the end of the transaction, so a chunk is written by one worker at a time
+     * even when several instances resume the same job.
+     *
+     * @return whether the chunk was already done
+     */
+    public boolean lockChunk(Chunk chunk) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCK_CHUNK, Boolean.class,
+                chunk.jobId(), chunk.chunkNo()));
+    }
+
+    public void markDone(Chunk chunk, int accounts) {
+        jdbcTemplate.update(MARK_DONE, accounts, chunk.jobId(), chunk.chunkNo());
+    }
+
+    /**
+     * Accounts with {@code fromId < id <= toId}, fromId is null for the first chunk.
+     */
+    public record Chunk(String jobId, int chunkNo, UUID fromId, UUID toId) {
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.bank.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.model.Operation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+    private static final String INSERT =
+            "insert into idempotency_key (idempotency_key, account_id, type, amount, target_account_id) " +
+                    "values (?, ?, ?, ?, ?)";
+    private static final String SELECT =
+            "select account_id, type, amount, target_account_id, response from idempotency_key " +
+                    "where idempotency_key = ?";
+    private static final String UPDATE_RESPONSE =
+            "update idempotency_key set response = ? where idempotency_key = ?";
+    private static final String DELETE_OLDER_THAN =
+            "delete from idempotency_key where created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Claims the key. Throws DuplicateKeyException when it is already taken; if another transaction
+     * holds an uncommitted claim the insert waits for it first.
+     */
+    public void insert(String key, Operation operation) {
+        jdbcTemplate.update(INSERT, key, operation.getAccountId(), operation.getType().name(), operation.getAmount(),
+                operation.getTargetAccountId());
+    }
+
+    public Optional<StoredKey> find(String key) {
+        return jdbcTemplate.query(SELECT, (rs, rowNum) -> new StoredKey(
+                        rs.getObject(1, UUID.class),
+                        rs.getString(2),
+                        rs.getLong(3),
+                        rs.getObject(4, UUID.class),
+                        rs.getString(5)), key)
+                .stream()
+                .findFirst();
+    }
+
+    public void updateResponse(String key, String response) {
+        jdbcTemplate.update(UPDATE_RESPONSE, response, key);
+    }
+
+    public int deleteOlderThan(Instant instant) {
+        return jdbcTemplate.update(DELETE_OLDER_THAN, Timestamp.from(instant));
+    }
+
+    public record StoredKey(UUID accountId, String type, long amount, UUID targetAccountId, String response) {
+
+        public static StoredKey of(Operation operation) {
+            return new StoredKey(operation.getAccountId(), operation.getType().name(), operation.getAmount(),
+                    operation.getTargetAccountId(), null);
+        }
+
+        public boolean matches(Operation operation) {
+            return accountId.equals(operation.getAccountId())
+                    && type.equals(operation.getType().name())
+                    && amount == operation.getAmount()
+                    && Objects.equals(targetAccountId, operation.getTargetAccountId());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.bank.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.OperationType;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Insert-only operation history. Reads are keyset scans of one account's slice of the covering index,
+ * so a page costs the same at the start and a million rows in.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OperationHistoryRepository {
+    private static final String INSERT =
+            "insert into operation_history (account_id, type, amount, balance, counterparty_id) values (?, ?, ?, ?, ?)";
+    private static final String SELECT_PAGE =
+            "select seq, account_id, type, amount, balance, counterparty_id, created_at from operation_history " +
+                    "where account_id = ? and seq < ? order by seq desc fetch first ? rows only";
+    private static final String SELECT_ALL =
+            "select seq, account_id, type, amount, balance, counterparty_id, created_at from operation_history " +
+                    "where account_id = ? order by seq";
+    private static final RowMapper<HistoryEntry> MAPPER = (rs, rowNum) -> map(rs);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(List<HistoryEntry> entries) {
+        jdbcTemplate.batchUpdate(INSERT, entries, entries.size(), (ps, entry) -> {
+            ps.setObject(1, entry.accountId());
+            ps.setString(2, entry.type().name());
+            ps.setLong(3, entry.amount());
+            ps.setLong(4, entry.balance());
+            ps.setObject(5, entry.counterpartyId());
+        });
+    }
+
+    /**
+     * @return up to {@code limit} entries older than {@code before}, newest first
+     */
+    public List<HistoryEntry> findPage(UUID accountId, long before, int limit) {
+        return jdbcTemplate.query(SELECT_PAGE, MAPPER, accountId, before, limit);
+    }
+
+    /**
+     * Hands every entry of the account to {@code sink}, oldest first, without collecting them.
+     * PostgreSQL only streams through a cursor inside a transaction; outside one it reads the whole result.
+     *
+     * @param timeout for the whole scan, including the time spent in {@code sink}
+     * @throws QueryTimeoutException once the timeout has passed, the cursor is closed
+     */
+    public void forEach(UUID accountId, int fetchSize, Duration timeout, Consumer<HistoryEntry> sink) {
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        jdbcTemplate.query(connection -> {
+            final PreparedStatement ps = connection.prepareStatement(SELECT_ALL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setQueryTimeout((int) Math.max(1, timeout.toSeconds()));
+            ps.setObject(1, accountId);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            if (System.nanoTime() - deadline > 0) {
+                throw new QueryTimeoutException("History scan of " + accountId + " exceeded " + timeout);
+            }
+            sink.accept(map(rs));
+        });
+    }
+
+    private static HistoryEntry map(ResultSet rs) throws SQLException {
+        final Timestamp createdAt = rs.getTimestamp(7);
+        return new HistoryEntry(rs.getLong(1), rs.getObject(2, UUID.class), OperationType.valueOf(rs.getString(3)),
+                rs.getLong(4), rs.getLong(5), rs.getObject(6, UUID.class),
+                createdAt == null ? null : createdAt.toInstant());
+    }
+}
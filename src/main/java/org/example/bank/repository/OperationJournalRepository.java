@@ -0,0 +1,105 @@
+package org.example.bank.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.model.Operation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Journal of applied operations that are not folded into account.balance yet, the un-compacted tail.
+ * Amounts are signed. Rows are never updated: they are inserted, and deleted in bulk once folded.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OperationJournalRepository {
+    private static final String INSERT =
+            "insert into operation_journal (account_id, type, amount) values (?, ?, ?)";
+    private static final String SELECT_TOTAL_BALANCE =
+            "select a.balance + coalesce((select sum(j.amount) from operation_journal j " +
+                    "where j.account_id = a.id), 0) " +
+                    "from account a where a.id = ?";
+    private static final String SELECT_TAIL =
+            "select coalesce(sum(amount), 0) from operation_journal where account_id = ?";
+    private static final String SELECT_TAILS =
+            "select account_id, sum(amount) from operation_journal " +
+                    "where account_id in (%s) group by account_id";
+    private static final String SELECT_PENDING_ACCOUNTS =
+            "select distinct account_id from operation_journal fetch first ? rows only";
+    private static final String SELECT_PENDING =
+            "select seq, amount from operation_journal where account_id = ? order by seq fetch first ? rows only";
+    private static final String DELETE =
+            "delete from operation_journal where seq in (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(List<Operation> operations) {
+        jdbcTemplate.batchUpdate(INSERT, operations, operations.size(), (ps, operation) -> {
+            ps.setObject(1, operation.getAccountId());
+            ps.setString(2, operation.getType().name());
+            ps.setLong(3, operation.applyTo(0L));
+        });
+    }
+
+    /**
+     * Snapshot plus tail, read in one statement so a concurrent compaction is either fully visible or not at all.
+     */
+    public Optional<Long> findTotalBalance(UUID accountId) {
+        return jdbcTemplate.query(SELECT_TOTAL_BALANCE, (rs, rowNum) -> rs.getLong(1), accountId)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Un-compacted tail alone, to add to a balance read elsewhere, e.g. one that includes the stripes.
+     */
+    public long findTail(UUID accountId) {
+        return jdbcTemplate.queryForObject(SELECT_TAIL, Long.class, accountId);
+    }
+
+    /**
+     * Un-compacted tail of every given account, in one grouped query. Accounts without a tail are left out.
+     */
+    public Map<UUID, Long> findTails(Collection<UUID> accountIds) {
+        final Map<UUID, Long> tails = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return tails;
+        }
+        final String sql = String.format(SELECT_TAILS,
+                String.join(", ", Collections.nCopies(accountIds.size(), "?")));
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> tails.put(rs.getObject(1, UUID.class), rs.getLong(2)),
+                accountIds.toArray());
+        return tails;
+    }
+
+    public List<UUID> findAccountsWithPending(int limit) {
+        return jdbcTemplate.queryForList(SELECT_PENDING_ACCOUNTS, UUID.class, limit);
+    }
+
+    public List<PendingEntry> findPending(UUID accountId, int limit) {
+        return jdbcTemplate.query(SELECT_PENDING,
+                (rs, rowNum) -> new PendingEntry(rs.getLong(1), rs.getLong(2)), accountId, limit);
+    }
+
+    /**
+     * Deletes exactly the folded entries, by key: an entry that committed after they were read stays in the tail.
+     */
+    public void delete(List<PendingEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        final String sql = String.format(DELETE, String.join(", ", Collections.nCopies(entries.size(), "?")));
+        jdbcTemplate.update(sql, entries.stream().map(PendingEntry::seq).toArray());
+    }
+
+    public record PendingEntry(long seq, long amount) {
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.bank.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rows of ownership_lease and ownership_member. Every lease change is a conditional UPDATE, so two instances racing for a range
+ * cannot both get it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OwnershipLeaseRepository {
+    private static final String SELECT_ALL =
+            "select range_id, owner, owner_url, expires_at from ownership_lease where range_id < ? order by range_id";
+    private static final String INSERT =
+            "insert into ownership_lease (range_id, expires_at) values (?, 0)";
+    private static final String RENEW =
+            "update ownership_lease set owner_url = ?, expires_at = ? where owner = ? and range_id < ?";
+    private static final String CLAIM =
+            "update ownership_lease set owner = ?, owner_url = ?, expires_at = ? " +
+            "where range_id = ? and (owner is null or owner = ? or expires_at <= ?)";
+    private static final String RELEASE =
+            "update ownership_lease set owner = null, owner_url = null, expires_at = 0 where range_id = ? and owner = ?";
+    private static final String RELEASE_ALL =
+            "update ownership_lease set owner = null, owner_url = null, expires_at = 0 where owner = ?";
+    private static final String UPDATE_MEMBER =
+            "update ownership_member set expires_at = ? where instance_id = ?";
+    private static final String INSERT_MEMBER =
+            "insert into ownership_member (instance_id, expires_at) values (?, ?)";
+    private static final String COUNT_LIVE_MEMBERS =
+            "select count(*) from ownership_member where expires_at > ? or instance_id = ?";
+    private static final String DELETE_MEMBER =
+            "delete from ownership_member where instance_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<Lease> findAll(int ranges) {
+        return jdbcTemplate.query(SELECT_ALL, (rs, rowNum) -> new Lease(
+                rs.getInt(1), rs.getString(2), rs.getString(3), rs.getLong(4)), ranges);
+    }
+
+    /**
+     * Inserts the missing rows for ranges 0 to {@code ranges - 1}. Rows inserted by another instance in between are skipped.
+     */
+    public void createRanges(int ranges) {
+        final Set<Integer> existing = new HashSet<>();
+        findAll(ranges).forEach(lease -> existing.add(lease.rangeId()));
+        for (int rangeId = 0; rangeId < ranges; rangeId++) {
+            if (!existing.contains(rangeId)) {
+                try {
+                    jdbcTemplate.update(INSERT, rangeId);
+                } catch (DuplicateKeyException e) {
+                    // another instance got there first
+                }
+            }
+        }
+    }
+
+    /**
+     * Extends every lease still held by {@code owner}; ranges taken over by someone else stay theirs.
+     */
+    public int renew(String owner, String ownerUrl, long expiresAt, int ranges) {
+        return jdbcTemplate.update(RENEW, ownerUrl, expiresAt, owner, ranges);
+    }
+
+    /**
+     * @param now leases that expired at or before this are free
+     * @return true if {@code owner} holds the range now
+     */
+    public boolean claim(int rangeId, String owner, String ownerUrl, long now, long expiresAt) {
+        return jdbcTemplate.update(CLAIM, owner, ownerUrl, expiresAt, rangeId, owner, now) > 0;
+    }
+
+    public void release(int rangeId, String owner) {
+        jdbcTemplate.update(RELEASE, rangeId, owner);
+    }
+
+    public void releaseAll(String owner) {
+        jdbcTemplate.update(RELEASE_ALL, owner);
+        jdbcTemplate.update(DELETE_MEMBER, owner);
+    }
+
+    /**
+     * Records that {@code instanceId} is alive until {@code expiresAt}.
+     */
+    public void heartbeat(String instanceId, long expiresAt) {
+        if (jdbcTemplate.update(UPDATE_MEMBER, expiresAt, instanceId) == 0) {
+            try {
+                jdbcTemplate.update(INSERT_MEMBER, instanceId, expiresAt);
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(UPDATE_MEMBER, expiresAt, instanceId);
+            }
+        }
+    }
+
+    /**
+     * @return instances whose heartbeat has not expired at {@code now}, always counting {@code instanceId}
+     */
+    public int countLiveMembers(long now, String instanceId) {
+        return jdbcTemplate.queryForObject(COUNT_LIVE_MEMBERS, Integer.class, now, instanceId);
+    }
+
+    /**
+     * @param expiresAt epoch millis, a lease is free once this has passed
+     */
+    public record Lease(int rangeId, String owner, String ownerUrl, long expiresAt) {
+    }
+}
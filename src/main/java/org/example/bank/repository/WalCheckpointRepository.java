@@ -0,0 +1,62 @@
+package org.example.bank.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Checkpoints of the write-behind engine: how far each instance's write-ahead log has been applied to account.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WalCheckpointRepository {
+    private static final String INSERT =
+            "insert into wal_checkpoint (node_id, lsn) values (?, 0)";
+    private static final String SELECT =
+            "select lsn from wal_checkpoint where node_id = ?";
+    private static final String UPDATE =
+            "update wal_checkpoint set lsn = ? where node_id = ? and lsn < ?";
+    // row and checkpoint in one statement, so the row never includes records past the checkpoint it comes with
+    private static final String SELECT_ACCOUNT =
+            "select a.balance, a.stripe_count, c.lsn from account a, wal_checkpoint c where a.id = ? and c.node_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long findOrCreate(String nodeId) {
+        try {
+            jdbcTemplate.update(INSERT, nodeId);
+        } catch (DuplicateKeyException e) {
+            // restarted instance
+        }
+        return jdbcTemplate.queryForObject(SELECT, Long.class, nodeId);
+    }
+
+    public long find(String nodeId) {
+        return jdbcTemplate.queryForObject(SELECT, Long.class, nodeId);
+    }
+
+    /**
+     * Moves the checkpoint forward, never back.
+     *
+     * @return false when it already is at or past {@code lsn}
+     */
+    public boolean update(String nodeId, long lsn) {
+        return jdbcTemplate.update(UPDATE, lsn, nodeId, lsn) > 0;
+    }
+
+    public Optional<AccountAt> findAccount(UUID accountId, String nodeId) {
+        return jdbcTemplate.query(SELECT_ACCOUNT,
+                (rs, rowNum) -> new AccountAt(rs.getLong(1), rs.getInt(2), rs.getLong(3)),
+                accountId, nodeId).stream().findFirst();
+    }
+
+    /**
+     * @param lsn checkpoint the balance corresponds to
+     */
+    public record AccountAt(long balance, int stripeCount, long lsn) {
+    }
+}
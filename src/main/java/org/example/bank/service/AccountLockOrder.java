@@ -0,0 +1,20 @@
+package org.example.bank.service;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * The one order in which code paths that lock several accounts take their row locks.
+ * <p>
+ * UUIDs are compared as unsigned bytes, which is how PostgreSQL sorts the uuid type, so a locking
+ * query with ORDER BY id takes its locks in the same order as Java code iterating a sorted set.
+ * {@link UUID#compareTo} compares signed longs and would disagree.
+ */
+public final class AccountLockOrder {
+    public static final Comparator<UUID> COMPARATOR = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private AccountLockOrder() {
+    }
+}
@@ -1,52 +1,230 @@
 package org.example.bank.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.bank.config.AccountProperties;
+import org.example.bank.config.OperationProperties;
 import org.example.bank.model.Account;
+import org.example.bank.model.AccountQueryResult;
+import org.example.bank.model.AccountView;
+import org.example.bank.model.BatchResult;
 import org.example.bank.model.Operation;
+import org.example.bank.model.OperationResult;
+import org.example.bank.model.OperationType;
+import org.example.bank.model.exception.BulkCountException;
+import org.example.bank.model.exception.CommonException;
+import org.example.bank.model.exception.QueryIdsException;
 import org.example.bank.repository.AccountRepository;
+import org.example.bank.repository.AccountViewRepository;
+import org.example.bank.service.engine.OperationEngine;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AccountService {
     private final AccountRepository repository;
+    private final AccountViewRepository viewRepository;
     private final AccountValidator validator;
+    private final OperationEngine operationEngine;
+    private final StripedAccountService stripedAccountService;
+    private final OperationProperties properties;
+    private final BalanceCache balanceCache;
+    private final BatchOperationService batchOperationService;
+    private final TransferService transferService;
+    private final AccountProperties accountProperties;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional
     public Account create() {
         final Account accountToSave = new Account();
-        accountToSave.setBalance(0.0);
+        accountToSave.setBalance(0);
+        accountToSave.setStripeCount(0);
         validator.validateOnCreate(accountToSave);
         return repository.save(accountToSave);
     }
 
-    @Transactional(readOnly = true)
-    public Account getById(UUID id) {
-        return repository.findById(id).orElseThrow();
+    /**
+     * Creates {@code count} wallets in chunks, each chunk is one transaction whose inserts go out as JDBC batches.
+     * Not transactional on purpose: every committed chunk is handed to {@code created} before the next one starts,
+     * so a failure part way through leaves the already reported wallets in place.
+     */
+    public void create(int count, Consumer<List<Account>> created) {
+        validateCreate(count);
+
+        final int chunkSize = accountProperties.getBulk().getChunkSize();
+        for (int offset = 0; offset < count; offset += chunkSize) {
+            final int size = Math.min(chunkSize, count - offset);
+            created.accept(transactionTemplate.execute(status -> {
+                final List<Account> accounts = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    final Account accountToSave = new Account();
+                    accountToSave.setBalance(0);
+                    accountToSave.setStripeCount(0);
+                    validator.validateOnCreate(accountToSave);
+                    accounts.add(accountToSave);
+                }
+                return repository.saveAll(accounts);
+            }));
+        }
     }
 
-    @Transactional
-    public Account makeOperation(Operation operation) {
-        final Account lockedAccount = repository.findByIdAndLock(operation.getAccountId())
-                .orElseThrow();
-        validator.validateOnOperation(lockedAccount, operation);
-
-        final Double balanceAfterOperation;
-        switch (operation.getType()) {
-            case DEPOSIT:
-                balanceAfterOperation = lockedAccount.getBalance() + operation.getAmount();
-                break;
-            case WITHDRAW:
-                balanceAfterOperation = lockedAccount.getBalance() - operation.getAmount();
-                break;
-            default:
-                throw new UnsupportedOperationException();
-        }
-        lockedAccount.setBalance(balanceAfterOperation);
-
-        return repository.save(lockedAccount);
+    public void validateCreate(int count) {
+        final int maxCount = accountProperties.getBulk().getMaxCount();
+        if (count < 1 || count > maxCount) {
+            throw new BulkCountException(maxCount, count);
+        }
+    }
+
+    /**
+     * @param maxStaleness how old a cached balance may be, null for the configured default
+     */
+    public AccountView getById(UUID id, Duration maxStaleness) {
+        return balanceCache.get(id, maxStaleness, () -> getById(id));
+    }
+
+    /**
+     * One JDBC query that also sums the stripes. Not transactional on purpose: nothing is loaded
+     * into a persistence context, and the engine's resolve reads its part in a single statement.
+     */
+    public AccountView getById(UUID id) {
+        return operationEngine.resolve(viewRepository.findById(id).orElseThrow());
+    }
+
+    /**
+     * Looks up many accounts with one IN query per chunk of ids. Results are projections, not entities.
+     * Duplicate ids are answered once, unknown ids are listed as missing.
+     */
+    public AccountQueryResult getByIds(List<UUID> ids) {
+        validateQuery(ids);
+
+        final List<UUID> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        final Map<UUID, AccountView> found = new HashMap<>(distinctIds.size() * 2);
+        final int chunkSize = accountProperties.getQuery().getChunkSize();
+        for (int offset = 0; offset < distinctIds.size(); offset += chunkSize) {
+            final List<UUID> chunk = distinctIds.subList(offset, Math.min(offset + chunkSize, distinctIds.size()));
+            operationEngine.resolveAll(viewRepository.findAllById(chunk))
+                    .forEach(view -> found.put(view.id(), view));
+        }
+
+        final List<AccountView> accounts = new ArrayList<>(found.size());
+        final List<UUID> missing = new ArrayList<>();
+        for (UUID id : distinctIds) {
+            final AccountView view = found.get(id);
+            if (view != null) {
+                accounts.add(view);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new AccountQueryResult(accounts, missing);
+    }
+
+    private void validateQuery(List<UUID> ids) {
+        final int maxIds = accountProperties.getQuery().getMaxIds();
+        final int count = ids == null ? 0 : ids.size();
+        if (count < 1 || count > maxIds) {
+            throw new QueryIdsException(maxIds, count);
+        }
+    }
+
+    /**
+     * Not transactional on purpose: the engine owns the transaction boundary,
+     * so queued operations do not hold a pooled connection while they wait.
+     */
+    public AccountView makeOperation(Operation operation) {
+        return tryOperation(operation).orElseThrow();
+    }
+
+    /**
+     * Same as makeOperation with business rejections returned instead of thrown.
+     * Stateless checks run first, a malformed operation is rejected without touching the database.
+     */
+    public OperationResult tryOperation(Operation operation) {
+        final CommonException rejection = validator.checkRequest(operation);
+        if (rejection != null) {
+            return OperationResult.rejected(rejection);
+        }
+
+        final OperationResult result = applyOperation(operation);
+        if (result.isApplied()) {
+            afterCommit(() -> {
+                balanceCache.invalidate(operation.getAccountId());
+                if (operation.getType() == OperationType.TRANSFER) {
+                    balanceCache.invalidate(operation.getTargetAccountId());
+                }
+            });
+        }
+        return result;
+    }
+
+    public BatchResult makeOperations(List<Operation> operations, boolean atomic) {
+        final BatchResult result = batchOperationService.makeOperations(operations, atomic);
+        if (result.getCommitted()) {
+            operations.stream()
+                    .flatMap(operation -> Stream.of(operation.getAccountId(), operation.getTargetAccountId()))
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .forEach(balanceCache::invalidate);
+        }
+        return result;
+    }
+
+    private OperationResult applyOperation(Operation operation) {
+        // rejections raised under the lock are stackless, catching them here costs next to nothing
+        try {
+            return OperationResult.applied(AccountView.of(routeOperation(operation)));
+        } catch (CommonException e) {
+            return OperationResult.rejected(e);
+        }
+    }
+
+    private Account routeOperation(Operation operation) {
+        if (operation.getType() == OperationType.TRANSFER) {
+            return transferService.transfer(operation);
+        }
+        if (properties.getStripes().isEnabled()) {
+            final Integer stripeCount = repository.findStripeCountById(operation.getAccountId()).orElse(0);
+            if (stripeCount > 0) {
+                final Optional<Account> result = stripedAccountService.makeOperation(operation, stripeCount);
+                if (result.isPresent()) {
+                    return result.get();
+                }
+            }
+        }
+        return operationEngine.makeOperation(operation);
+    }
+
+    /**
+     * Under an Idempotency-Key the operation runs in the caller's transaction. Invalidating before its commit
+     * would let a reader cache the old balance again until the entry expires.
+     */
+    private static void afterCommit(Runnable invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidation.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidation.run();
+            }
+        });
     }
 }
@@ -5,9 +5,15 @@ import org.example.bank.model.Account;
 import org.example.bank.model.Operation;
 import org.example.bank.model.OperationType;
 import org.example.bank.model.exception.AmountValueException;
+import org.example.bank.model.exception.CommonException;
 import org.example.bank.model.exception.NotEnoughException;
+import org.example.bank.model.exception.OperationFieldException;
+import org.example.bank.model.exception.TransferTargetException;
 import org.springframework.stereotype.Component;
 
+/**
+ * Each rule comes as a check returning the rejection, null when it passes, and as a validate method throwing it.
+ */
 @Component
 @RequiredArgsConstructor
 public class AccountValidator {
@@ -16,14 +22,71 @@ public class AccountValidator {
         // todo
     }
 
-    public void validateOnOperation(final Account account, final Operation operation) {
+    /**
+     * Rules that need no account state. Runs before any database access,
+     * so malformed operations never take a connection or a row lock.
+     */
+    public CommonException checkRequest(final Operation operation) {
+        if (operation.getAccountId() == null) {
+            return new OperationFieldException("accountId");
+        }
+        if (operation.getType() == null) {
+            return new OperationFieldException("type");
+        }
+        if (operation.getType() == OperationType.TRANSFER) {
+            return checkTransfer(operation);
+        }
+        return checkAmount(operation);
+    }
+
+    public CommonException checkAmount(final Operation operation) {
         if (operation.getAmount() <= 0) {
-            throw new AmountValueException(operation.getAmount());
+            return new AmountValueException(operation.getAmount());
+        }
+        return null;
+    }
+
+    public CommonException checkTransfer(final Operation operation) {
+        final CommonException rejection = checkAmount(operation);
+        if (rejection != null) {
+            return rejection;
+        }
+
+        if (operation.getTargetAccountId() == null ||
+                operation.getTargetAccountId().equals(operation.getAccountId())) {
+            return new TransferTargetException(operation.getAccountId(), operation.getTargetAccountId());
+        }
+        return null;
+    }
+
+    public CommonException checkOnOperation(final Account account, final Operation operation) {
+        final CommonException rejection = checkAmount(operation);
+        if (rejection != null) {
+            return rejection;
         }
 
-        if (operation.getType().equals(OperationType.WITHDRAW) &&
+        if (!operation.getType().equals(OperationType.DEPOSIT) &&
                 operation.getAmount() > account.getBalance()) {
-            throw new NotEnoughException(account.getId(), account.getBalance(), operation.getAmount());
+            return new NotEnoughException(account.getId(), account.getBalance(), operation.getAmount());
+        }
+        return null;
+    }
+
+    public void validateAmount(final Operation operation) {
+        throwIfRejected(checkAmount(operation));
+    }
+
+    public void validateTransfer(final Operation operation) {
+        throwIfRejected(checkTransfer(operation));
+    }
+
+    public void validateOnOperation(final Account account, final Operation operation) {
+        throwIfRejected(checkOnOperation(account, operation));
+    }
+
+    private static void throwIfRejected(final CommonException rejection) {
+        if (rejection != null) {
+            throw rejection;
         }
     }
 }
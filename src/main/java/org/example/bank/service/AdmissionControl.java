@@ -0,0 +1,119 @@
+package org.example.bank.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.bank.config.AdmissionProperties;
+import org.example.bank.model.exception.OverloadedException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Limits the work let through to the service layer, so that under overload requests are shed
+ * quickly with 429 instead of piling up on the connection pool and on row locks until they time out.
+ * <p>
+ * A request first takes a slot of its account, at most {@code max-per-account} per account, then
+ * waits a bounded time in a bounded queue for one of {@code max-in-flight} global slots.
+ */
+@Component
+public class AdmissionControl {
+    private final AdmissionProperties properties;
+    private final Semaphore inFlight;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<UUID, Integer> perAccount = new ConcurrentHashMap<>();
+    private final Counter shedGlobal;
+    private final Counter shedAccount;
+
+    public AdmissionControl(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.inFlight = new Semaphore(properties.getMaxInFlight());
+        this.shedGlobal = Counter.builder("bank.admission.shed").tag("reason", "global").register(meterRegistry);
+        this.shedAccount = Counter.builder("bank.admission.shed").tag("reason", "account").register(meterRegistry);
+        Gauge.builder("bank.admission.in.flight", this, control -> control.properties.getMaxInFlight()
+                        - control.inFlight.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("bank.admission.queued", queued, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("bank.admission.accounts", perAccount, Map::size).register(meterRegistry);
+        Gauge.builder("bank.admission.account.depth.max", this, AdmissionControl::maxAccountDepth)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param accountId account the request works on, null for requests without one
+     */
+    public <T> T execute(UUID accountId, Supplier<T> action) {
+        if (!properties.isEnabled()) {
+            return action.get();
+        }
+
+        if (accountId != null && !enter(accountId)) {
+            shedAccount.increment();
+            throw new OverloadedException(properties.getRetryAfter());
+        }
+        try {
+            acquire();
+            try {
+                return action.get();
+            } finally {
+                inFlight.release();
+            }
+        } finally {
+            if (accountId != null) {
+                leave(accountId);
+            }
+        }
+    }
+
+    private void acquire() {
+        if (inFlight.tryAcquire()) {
+            return;
+        }
+        if (queued.incrementAndGet() > properties.getMaxQueued()) {
+            queued.decrementAndGet();
+            shedGlobal.increment();
+            throw new OverloadedException(properties.getRetryAfter());
+        }
+        try {
+            if (!inFlight.tryAcquire(properties.getMaxQueueWait().toNanos(), TimeUnit.NANOSECONDS)) {
+                shedGlobal.increment();
+                throw new OverloadedException(properties.getRetryAfter());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OverloadedException(properties.getRetryAfter());
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    private boolean enter(UUID accountId) {
+        final boolean[] admitted = {false};
+        perAccount.compute(accountId, (id, depth) -> {
+            final int current = depth == null ? 0 : depth;
+            if (current >= properties.getMaxPerAccount()) {
+                return depth;
+            }
+            admitted[0] = true;
+            return current + 1;
+        });
+        return admitted[0];
+    }
+
+    private void leave(UUID accountId) {
+        perAccount.computeIfPresent(accountId, (id, depth) -> depth == 1 ? null : depth - 1);
+    }
+
+    private double maxAccountDepth() {
+        return perAccount.values().stream()
+                .mapToInt(Integer::intValue)
+                .max()
+                .orElse(0);
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.bank.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.bank.cache.BoundedCache;
+import org.example.bank.cache.Invalidation;
+import org.example.bank.cache.InvalidationBus;
+import org.example.bank.config.BalanceCacheProperties;
+import org.example.bank.model.AccountView;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of accounts for GET /api/v1/wallet/{id}.
+ * <p>
+ * Writes invalidate instead of updating, so a slow writer cannot put an older balance over a newer one.
+ * A read that raced with a write may still cache a stale balance; callers bound that with maxStaleness.
+ */
+@Component
+public class BalanceCache {
+    private final BoundedCache<UUID, AccountView> cache;
+    private final InvalidationBus bus;
+    private final BalanceCacheProperties properties;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer invalidationLag;
+
+    public BalanceCache(InvalidationBus bus, BalanceCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = new BoundedCache<>(properties.getSize(), properties.getTtl());
+        this.bus = bus;
+        this.properties = properties;
+        this.hits = Counter.builder("bank.balance.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("bank.balance.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.invalidationLag = Timer.builder("bank.balance.cache.invalidation.lag")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("bank.balance.cache.hit.ratio", this, BalanceCache::hitRatio).register(meterRegistry);
+        Gauge.builder("bank.balance.cache.size", cache, BoundedCache::size).register(meterRegistry);
+        FunctionCounter.builder("bank.balance.cache.evictions", cache, BoundedCache::evictionCount)
+                .register(meterRegistry);
+        bus.subscribe(this::onInvalidation);
+    }
+
+    /**
+     * @param maxStaleness null for the configured default, zero to always load
+     */
+    public AccountView get(UUID id, Duration maxStaleness, Supplier<AccountView> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+
+        final Duration staleness = maxStaleness != null ? maxStaleness : properties.getDefaultMaxStaleness();
+        if (!staleness.isZero()) {
+            final AccountView cached = cache.get(id, staleness);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+
+        final AccountView account = loader.get();
+        cache.put(id, account);
+        return account;
+    }
+
+    public void invalidate(UUID id) {
+        if (properties.isEnabled()) {
+            bus.publish(id);
+        }
+    }
+
+    private void onInvalidation(Invalidation invalidation) {
+        cache.invalidate(invalidation.accountId());
+        invalidationLag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - invalidation.publishedAt())));
+    }
+
+    private double hitRatio() {
+        final double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.bank.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.config.OperationProperties;
+import org.example.bank.model.Account;
+import org.example.bank.model.AccountStripe;
+import org.example.bank.model.BatchItemResult;
+import org.example.bank.model.BatchResult;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.Money;
+import org.example.bank.model.Operation;
+import org.example.bank.model.OperationType;
+import org.example.bank.model.exception.BatchSizeException;
+import org.example.bank.model.exception.CommonException;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.service.engine.OperationEngine;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.example.bank.model.BatchItemResult.Status.APPLIED;
+import static org.example.bank.model.BatchItemResult.Status.NOT_FOUND;
+import static org.example.bank.model.BatchItemResult.Status.REJECTED;
+import static org.example.bank.model.BatchItemResult.Status.ROLLED_BACK;
+
+/**
+ * Applies many operations in one transaction.
+ * <p>
+ * All distinct accounts are locked up front in {@link AccountLockOrder}, so concurrent batches touching
+ * the same wallets in a different order queue up instead of deadlocking. The updated rows are flushed
+ * at commit as one JDBC batch.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchOperationService {
+    private final AccountRepository repository;
+    private final AccountValidator validator;
+    private final OperationEngine operationEngine;
+    private final OperationProperties properties;
+    private final HistoryService history;
+    private final StripedAccountService stripedAccountService;
+
+    /**
+     * @param atomic all-or-nothing when true, otherwise invalid items are skipped and the rest is committed
+     */
+    @Transactional
+    public BatchResult makeOperations(List<Operation> operations, boolean atomic) {
+        final int maxSize = properties.getBatch().getMaxSize();
+        if (operations.isEmpty() || operations.size() > maxSize) {
+            throw new BatchSizeException(maxSize, operations.size());
+        }
+
+        // stateless checks first, malformed items are rejected without locking their accounts
+        final List<CommonException> rejections = operations.stream()
+                .map(validator::checkRequest)
+                .toList();
+        final Map<UUID, Account> lockedAccounts = lock(operations, rejections);
+        final Map<UUID, List<AccountStripe>> lockedStripes = lockStripes(lockedAccounts);
+        // the engine may keep part of the balance outside the row and stripes hold the rest, validation has to see all of it
+        final Map<UUID, Long> balances = new HashMap<>();
+        lockedAccounts.forEach((id, account) -> balances.put(id, Money.add(
+                operationEngine.resolve(account).getBalance(), StripedAccountService.sum(lockedStripes.get(id)))));
+
+        final List<BatchItemResult> items = new ArrayList<>(operations.size());
+        final List<HistoryEntry> entries = new ArrayList<>();
+        boolean failed = false;
+        for (int index = 0; index < operations.size(); index++) {
+            final Operation operation = operations.get(index);
+            final UUID accountId = operation.getAccountId();
+            if (rejections.get(index) != null) {
+                items.add(new BatchItemResult(index, accountId, REJECTED, null, rejections.get(index).getMessage()));
+                failed = true;
+                continue;
+            }
+
+            final Account lockedAccount = lockedAccounts.get(accountId);
+            final boolean transfer = operation.getType() == OperationType.TRANSFER;
+            final Account lockedTarget = transfer ? lockedAccounts.get(operation.getTargetAccountId()) : null;
+            if (lockedAccount == null || transfer && lockedTarget == null) {
+                items.add(new BatchItemResult(index, accountId, NOT_FOUND, null, "No value present"));
+                failed = true;
+                continue;
+            }
+
+            final long balance = balances.get(accountId);
+            final CommonException rejection = validator.checkOnOperation(lockedAccount.withBalance(balance), operation);
+            if (rejection != null) {
+                items.add(new BatchItemResult(index, accountId, REJECTED, null, rejection.getMessage()));
+                failed = true;
+                continue;
+            }
+
+            final long balanceAfterOperation = operation.applyTo(balance);
+            balances.put(accountId, balanceAfterOperation);
+            if (operation.getType() == OperationType.DEPOSIT) {
+                lockedAccount.setBalance(operation.applyTo(lockedAccount.getBalance()));
+            } else {
+                stripedAccountService.debit(lockedAccount, lockedStripes.get(accountId), balance, operation.getAmount());
+            }
+            if (transfer) {
+                balances.merge(lockedTarget.getId(), operation.getAmount(), Money::add);
+                lockedTarget.setBalance(Money.add(lockedTarget.getBalance(), operation.getAmount()));
+                entries.add(HistoryEntry.credit(operation, balances.get(lockedTarget.getId())));
+            }
+            entries.add(HistoryEntry.of(operation, balanceAfterOperation));
+            items.add(new BatchItemResult(index, accountId, APPLIED, balanceAfterOperation, null));
+        }
+
+        if (atomic && failed) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            items.stream()
+                    .filter(item -> item.getStatus() == APPLIED)
+                    .forEach(item -> {
+                        item.setStatus(ROLLED_BACK);
+                        item.setBalance(null);
+                    });
+            return new BatchResult(false, items);
+        }
+        history.record(entries);
+        return new BatchResult(true, items);
+    }
+
+    private Map<UUID, Account> lock(List<Operation> operations, List<CommonException> rejections) {
+        final SortedSet<UUID> ids = new TreeSet<>(AccountLockOrder.COMPARATOR);
+        for (int index = 0; index < operations.size(); index++) {
+            if (rejections.get(index) != null) {
+                continue;
+            }
+            final Operation operation = operations.get(index);
+            ids.add(operation.getAccountId());
+            if (operation.getType() == OperationType.TRANSFER) {
+                ids.add(operation.getTargetAccountId());
+            }
+        }
+
+        // chunks are taken in ascending order, so the locks as a whole are still acquired in order
+        final int chunkSize = properties.getBatch().getLockChunkSize();
+        final Map<UUID, Account> lockedAccounts = new HashMap<>();
+        final List<UUID> chunk = new ArrayList<>(chunkSize);
+        for (UUID id : ids) {
+            chunk.add(id);
+            if (chunk.size() == chunkSize) {
+                repository.findAllByIdInAndLock(chunk).forEach(account -> lockedAccounts.put(account.getId(), account));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            repository.findAllByIdInAndLock(chunk).forEach(account -> lockedAccounts.put(account.getId(), account));
+        }
+        return lockedAccounts;
+    }
+
+    /**
+     * Taken after all rows, in lock order, so a batch never waits for a row while holding stripes.
+     */
+    private Map<UUID, List<AccountStripe>> lockStripes(Map<UUID, Account> lockedAccounts) {
+        final SortedSet<UUID> ids = new TreeSet<>(AccountLockOrder.COMPARATOR);
+        ids.addAll(lockedAccounts.keySet());
+        final Map<UUID, List<AccountStripe>> lockedStripes = new HashMap<>();
+        for (UUID id : ids) {
+            lockedStripes.put(id, stripedAccountService.lockStripes(lockedAccounts.get(id)));
+        }
+        return lockedStripes;
+    }
+}
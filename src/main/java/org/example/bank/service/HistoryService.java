@@ -0,0 +1,120 @@
+package org.example.bank.service;
+
+import org.example.bank.config.AdmissionProperties;
+import org.example.bank.config.HistoryProperties;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.HistoryPage;
+import org.example.bank.model.exception.OverloadedException;
+import org.example.bank.model.exception.PageSizeException;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.repository.OperationHistoryRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Statements of applied operations. Writers call {@link #record} inside the transaction that applied
+ * the operations, so an entry exists exactly when its operation was committed.
+ */
+@Service
+public class HistoryService {
+    private final OperationHistoryRepository repository;
+    private final AccountRepository accountRepository;
+    private final HistoryProperties properties;
+    private final Duration retryAfter;
+    private final Semaphore exports;
+
+    public HistoryService(OperationHistoryRepository repository,
+                          AccountRepository accountRepository,
+                          HistoryProperties properties,
+                          AdmissionProperties admissionProperties) {
+        this.repository = repository;
+        this.accountRepository = accountRepository;
+        this.properties = properties;
+        this.retryAfter = admissionProperties.getRetryAfter();
+        this.exports = new Semaphore(properties.getMaxConcurrentExports());
+    }
+
+    public void record(HistoryEntry entry) {
+        record(List.of(entry));
+    }
+
+    public void record(List<HistoryEntry> entries) {
+        if (properties.isEnabled() && !entries.isEmpty()) {
+            repository.append(entries);
+        }
+    }
+
+    /**
+     * @param before cursor from the previous page, null for the newest entries
+     * @param limit  page size, null for the configured default
+     */
+    @Transactional(readOnly = true)
+    public HistoryPage getHistory(UUID accountId, Long before, Integer limit) {
+        final int pageSize = limit == null ? properties.getPageSize() : limit;
+        if (pageSize < 1 || pageSize > properties.getMaxPageSize()) {
+            throw new PageSizeException(properties.getMaxPageSize(), pageSize);
+        }
+        checkExists(accountId);
+
+        // one extra row tells whether there is a next page
+        final List<HistoryEntry> entries = repository.findPage(accountId,
+                before == null ? Long.MAX_VALUE : before, pageSize + 1);
+        if (entries.size() <= pageSize) {
+            return new HistoryPage(entries, null);
+        }
+        final List<HistoryEntry> page = entries.subList(0, pageSize);
+        return new HistoryPage(page, page.get(pageSize - 1).seq());
+    }
+
+    /**
+     * Streams the whole history, oldest first, through a cursor. The transaction keeps the cursor open,
+     * at most for {@code export-timeout}.
+     */
+    @Transactional(readOnly = true)
+    public void export(UUID accountId, Consumer<HistoryEntry> sink) {
+        checkExists(accountId);
+        repository.forEach(accountId, properties.getExportFetchSize(), properties.getExportTimeout(), sink);
+    }
+
+    /**
+     * Takes one of the {@code max-concurrent-exports} slots, to be closed once the export is done.
+     *
+     * @throws OverloadedException when all slots are taken
+     */
+    public ExportSlot acquireExport() {
+        if (!exports.tryAcquire()) {
+            throw new OverloadedException(retryAfter);
+        }
+        return new ExportSlot(exports);
+    }
+
+    public void checkExists(UUID accountId) {
+        if (!accountRepository.existsById(accountId)) {
+            throw new NoSuchElementException("No value present");
+        }
+    }
+
+    public static class ExportSlot implements AutoCloseable {
+        private final Semaphore exports;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private ExportSlot(Semaphore exports) {
+            this.exports = exports;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                exports.release();
+            }
+        }
+    }
+}
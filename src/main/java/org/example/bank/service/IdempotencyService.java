@@ -0,0 +1,146 @@
+package org.example.bank.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bank.cache.BoundedCache;
+import org.example.bank.config.IdempotencyProperties;
+import org.example.bank.model.AccountView;
+import org.example.bank.model.Operation;
+import org.example.bank.model.exception.IdempotencyKeyException;
+import org.example.bank.repository.IdempotencyKeyRepository;
+import org.example.bank.repository.IdempotencyKeyRepository.StoredKey;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates retried operations by their Idempotency-Key header.
+ * <p>
+ * The key is claimed in idempotency_key in the same transaction that runs the operation, so a failed
+ * operation releases it and a concurrent retry on any instance waits on the claim and then reads the
+ * stored response. Every engine writes a keyed operation in that transaction, the batching ones
+ * (group-commit, partitioned), the adaptive one and write-behind take the row lock in it instead of queueing,
+ * retrying or logging, which makes application exactly-once. Completed responses are immutable and only cached
+ * once committed, which makes the local cache safe to keep on every instance.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+    private final BoundedCache<String, CachedResponse> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public IdempotencyService(IdempotencyKeyRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              IdempotencyProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.cache = new BoundedCache<>(properties.getCacheSize(), properties.getCacheTtl());
+        this.hits = Counter.builder("bank.idempotency.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("bank.idempotency.cache.requests").tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("bank.idempotency.cache.evictions", cache, BoundedCache::evictionCount)
+                .register(meterRegistry);
+        Gauge.builder("bank.idempotency.cache.size", cache, BoundedCache::size)
+                .register(meterRegistry);
+    }
+
+    public AccountView execute(String key, Operation operation, Supplier<AccountView> action) {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw IdempotencyKeyException.length(MAX_KEY_LENGTH, key.length());
+        }
+
+        final CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached.replay(key, operation);
+        }
+        misses.increment();
+
+        try {
+            return transactionTemplate.execute(status -> {
+                final Optional<StoredKey> stored = repository.find(key);
+                if (stored.isPresent()) {
+                    return remember(key, stored.get()).replay(key, operation);
+                }
+
+                repository.insert(key, operation);
+                final AccountView response = action.get();
+                repository.updateResponse(key, write(response));
+                // a rollback after this point must not leave the response to be replayed
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        cache.put(key, new CachedResponse(StoredKey.of(operation), response));
+                    }
+                });
+                return response;
+            });
+        } catch (DuplicateKeyException e) {
+            // another request with this key committed while ours waited on the claim
+            return remember(key, repository.find(key).orElseThrow()).replay(key, operation);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bank.idempotency.cleanup-interval:60000}")
+    public void deleteExpired() {
+        final int deleted = repository.deleteOlderThan(Instant.now().minus(properties.getRetention()));
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private CachedResponse remember(String key, StoredKey stored) {
+        final CachedResponse response = new CachedResponse(stored, read(stored.response()));
+        cache.put(key, response);
+        return response;
+    }
+
+    private String write(AccountView account) {
+        try {
+            return objectMapper.writeValueAsString(account);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private AccountView read(String response) {
+        try {
+            return objectMapper.readValue(response, AccountView.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CachedResponse(StoredKey request, AccountView response) {
+
+        private AccountView replay(String key, Operation operation) {
+            if (!request.matches(operation)) {
+                throw IdempotencyKeyException.reused(key);
+            }
+            return response;
+        }
+    }
+}
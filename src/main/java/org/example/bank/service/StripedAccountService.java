@@ -0,0 +1,201 @@
+package org.example.bank.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.config.OperationProperties;
+import org.example.bank.model.Account;
+import org.example.bank.model.AccountStripe;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.Money;
+import org.example.bank.model.Operation;
+import org.example.bank.model.exception.NotEnoughException;
+import org.example.bank.model.exception.StripeCountException;
+import org.example.bank.model.exception.StripesDisabledException;
+import org.example.bank.model.exception.StripesUnsupportedException;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.repository.AccountStripeRepository;
+import org.example.bank.service.engine.OperationEngine;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hot accounts can be split into balance stripes so that concurrent operations update different rows.
+ * <p>
+ * Deposits go to a random stripe. A withdrawal tries one random stripe with a guarded update and,
+ * when that stripe is short, locks all stripes in stripe order and sweeps them. A transaction
+ * therefore either holds a single stripe without waiting for another one, or takes the stripes
+ * in a fixed order, which keeps the scheme deadlock-free.
+ * <p>
+ * Transfers, batches and operations on an account that lost its stripes go through the row, so the row
+ * keeps a part of the balance too. Every writer keeps each part non-negative, which is what lets the guarded
+ * single-stripe withdrawal ignore the other parts.
+ */
+@Service
+@RequiredArgsConstructor
+public class StripedAccountService {
+    private final AccountRepository accountRepository;
+    private final AccountStripeRepository stripeRepository;
+    private final AccountValidator validator;
+    private final OperationProperties properties;
+    private final HistoryService history;
+    private final OperationEngine operationEngine;
+
+    /**
+     * Splits the whole balance of the account evenly over {@code count} stripes.
+     * Also changes the stripe count of an already striped account.
+     */
+    @Transactional
+    public Account stripe(UUID id, Integer count) {
+        checkEnabled();
+        final int maxCount = properties.getStripes().getMaxCount();
+        if (count == null || count < 2 || count > maxCount) {
+            throw new StripeCountException(maxCount, count);
+        }
+
+        final Account lockedAccount = accountRepository.findByIdAndLock(id).orElseThrow();
+        final List<AccountStripe> lockedStripes = stripeRepository.findAllByAccountIdAndLock(id);
+        final long rowBalance = operationEngine.resolve(lockedAccount).getBalance();
+        final long total = Money.add(rowBalance, sum(lockedStripes));
+
+        // the last stripe takes the remainder of the division
+        final long share = total / count;
+        for (int stripe = 0; stripe < count; stripe++) {
+            final long balance = stripe == count - 1 ? total - share * (count - 1) : share;
+            if (stripe < lockedStripes.size()) {
+                lockedStripes.get(stripe).setBalance(balance);
+            } else {
+                stripeRepository.save(new AccountStripe(new AccountStripe.Key(id, stripe), balance));
+            }
+        }
+        if (lockedStripes.size() > count) {
+            stripeRepository.deleteAll(lockedStripes.subList(count, lockedStripes.size()));
+        }
+
+        // the engine may keep part of the row balance outside the row, only the resolved part is moved
+        lockedAccount.setBalance(lockedAccount.getBalance() - rowBalance);
+        lockedAccount.setStripeCount(count);
+        return lockedAccount.withBalance(total);
+    }
+
+    /**
+     * Folds all stripes back into the account row.
+     */
+    @Transactional
+    public Account unstripe(UUID id) {
+        checkEnabled();
+        final Account lockedAccount = accountRepository.findByIdAndLock(id).orElseThrow();
+        final List<AccountStripe> lockedStripes = stripeRepository.findAllByAccountIdAndLock(id);
+
+        lockedAccount.setBalance(Money.add(lockedAccount.getBalance(), sum(lockedStripes)));
+        lockedAccount.setStripeCount(0);
+        stripeRepository.deleteAll(lockedStripes);
+        return lockedAccount;
+    }
+
+    /**
+     * @return empty when the account has lost its stripes in the meantime, the caller then takes the plain path
+     */
+    @Transactional
+    public Optional<Account> makeOperation(Operation operation, Integer stripeCount) {
+        validator.validateAmount(operation);
+
+        final UUID accountId = operation.getAccountId();
+        final Integer stripe = ThreadLocalRandom.current().nextInt(stripeCount);
+        switch (operation.getType()) {
+            case DEPOSIT:
+                if (stripeRepository.deposit(accountId, stripe, operation.getAmount()) == 0) {
+                    return Optional.empty();
+                }
+                break;
+            case WITHDRAW:
+                if (stripeRepository.withdraw(accountId, stripe, operation.getAmount()) == 0
+                        && !sweep(accountId, operation.getAmount())) {
+                    return Optional.empty();
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+
+        final Account result = new Account();
+        result.setId(accountId);
+        result.setBalance(accountRepository.findTotalBalanceById(accountId).orElseThrow());
+        result.setStripeCount(stripeCount);
+        // stripes change independently, so under concurrency this is the total as read here, not a running balance
+        history.record(HistoryEntry.of(operation, result.getBalance()));
+        return Optional.of(result);
+    }
+
+    /**
+     * Without routing operations only see the row, which striping zeroes. Write-behind keeps the balance
+     * of the row in memory and flushes relative updates into it later, which striping would count twice.
+     */
+    private void checkEnabled() {
+        if (properties.getMode() == OperationProperties.Mode.WRITE_BEHIND) {
+            throw new StripesUnsupportedException();
+        }
+        if (!properties.getStripes().isEnabled()) {
+            throw new StripesDisabledException();
+        }
+    }
+
+    /**
+     * Locks the stripes of an account whose row the caller holds locked, for writers that go through the row.
+     *
+     * @return empty for a plain account
+     */
+    public List<AccountStripe> lockStripes(Account lockedAccount) {
+        final Integer stripeCount = lockedAccount.getStripeCount();
+        if (stripeCount == null || stripeCount == 0) {
+            return List.of();
+        }
+        return stripeRepository.findAllByAccountIdAndLock(lockedAccount.getId());
+    }
+
+    /**
+     * Takes {@code amount} from a locked account, from the row first and then from the stripes.
+     *
+     * @param balance of the whole account before, as resolved by the engine plus the locked stripes
+     */
+    public void debit(Account lockedAccount, List<AccountStripe> lockedStripes, long balance, long amount) {
+        final long fromRow = Math.max(0, Math.min(amount, balance - sum(lockedStripes)));
+        lockedAccount.setBalance(lockedAccount.getBalance() - fromRow);
+
+        long remaining = amount - fromRow;
+        for (AccountStripe lockedStripe : lockedStripes) {
+            final long taken = Math.min(lockedStripe.getBalance(), remaining);
+            lockedStripe.setBalance(lockedStripe.getBalance() - taken);
+            remaining -= taken;
+        }
+    }
+
+    /**
+     * Locks the row before the stripes, in the same order as striping, and counts the balance left in the row.
+     */
+    private boolean sweep(UUID accountId, long amount) {
+        final Account lockedAccount = accountRepository.findByIdAndLock(accountId).orElseThrow();
+        final List<AccountStripe> lockedStripes = lockStripes(lockedAccount);
+        if (lockedStripes.isEmpty()) {
+            return false;
+        }
+
+        final long total = Money.add(operationEngine.resolve(lockedAccount).getBalance(), sum(lockedStripes));
+        if (amount > total) {
+            throw new NotEnoughException(accountId, total, amount);
+        }
+        debit(lockedAccount, lockedStripes, total, amount);
+        return true;
+    }
+
+    static long sum(List<AccountStripe> stripes) {
+        long sum = 0;
+        for (AccountStripe stripe : stripes) {
+            sum = Money.add(sum, stripe.getBalance());
+        }
+        return sum;
+    }
+}
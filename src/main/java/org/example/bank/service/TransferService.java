@@ -0,0 +1,73 @@
+package org.example.bank.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.metrics.OperationMetrics;
+import org.example.bank.model.Account;
+import org.example.bank.model.AccountStripe;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.Money;
+import org.example.bank.model.Operation;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.service.engine.OperationEngine;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves money between two accounts in one transaction. Both rows are locked by a single
+ * ORDER BY id query, i.e. in {@link AccountLockOrder}, so A->B and B->A running at the same time
+ * queue on the same first lock instead of deadlocking. The two updates are flushed as one JDBC batch.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransferService {
+    private final AccountRepository repository;
+    private final AccountValidator validator;
+    private final OperationEngine operationEngine;
+    private final OperationMetrics metrics;
+    private final HistoryService history;
+    private final StripedAccountService stripedAccountService;
+
+    /**
+     * @return the source account after the transfer
+     */
+    @Transactional
+    public Account transfer(Operation operation) {
+        validator.validateTransfer(operation);
+        metrics.timeCommit();
+
+        final long lockStartedAt = System.nanoTime();
+        final Map<UUID, Account> lockedAccounts = repository
+                .findAllByIdInAndLock(List.of(operation.getAccountId(), operation.getTargetAccountId()))
+                .stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+        final Account source = lockedAccounts.get(operation.getAccountId());
+        final Account target = lockedAccounts.get(operation.getTargetAccountId());
+        if (source == null || target == null) {
+            throw new NoSuchElementException("No value present");
+        }
+        metrics.recordLock(operation.getAccountId(), lockStartedAt);
+
+        // a striped source can only pay with its stripes, they are locked after both rows
+        final List<AccountStripe> sourceStripes = stripedAccountService.lockStripes(source);
+        final Account resolvedRow = operationEngine.resolve(source);
+        final Account resolvedSource = resolvedRow.withBalance(
+                Money.add(resolvedRow.getBalance(), StripedAccountService.sum(sourceStripes)));
+        validator.validateOnOperation(resolvedSource, operation);
+        final Account result = resolvedSource.withBalance(operation.applyTo(resolvedSource.getBalance()));
+        final long targetBalance = Money.add(operationEngine.resolve(target).getBalance(), operation.getAmount());
+
+        stripedAccountService.debit(source, sourceStripes, resolvedSource.getBalance(), operation.getAmount());
+        target.setBalance(Money.add(target.getBalance(), operation.getAmount()));
+        history.record(List.of(
+                HistoryEntry.of(operation, result.getBalance()),
+                HistoryEntry.credit(operation, targetBalance)));
+        return result;
+    }
+}
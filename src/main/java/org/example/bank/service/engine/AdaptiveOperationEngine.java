@@ -0,0 +1,163 @@
+package org.example.bank.service.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.bank.config.OperationProperties;
+import org.example.bank.metrics.OperationMetrics;
+import org.example.bank.model.Account;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.Operation;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.service.AccountValidator;
+import org.example.bank.service.HistoryService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optimistic by default: the account is read without a lock and written back only if its version is unchanged,
+ * retried a few times with jittered backoff. Accounts whose conflict rate climbs are switched to the
+ * pessimistic SELECT ... FOR UPDATE path, where queueing on the row lock beats retrying; a contended lock wait
+ * there still counts as a conflict, so they switch back only once the waits are gone.
+ * An operation that runs in the caller's transaction always takes the row lock.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank.operation", name = "mode", havingValue = "adaptive")
+public class AdaptiveOperationEngine implements OperationEngine {
+    private final AccountRepository repository;
+    private final AccountValidator validator;
+    private final OperationMetrics metrics;
+    private final HistoryService history;
+    private final TransactionTemplate transactionTemplate;
+    private final ConflictTracker tracker;
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final long maxBackoffNanos;
+    private final long contendedLockWaitNanos;
+    private final Counter conflicts;
+    private final Counter switches;
+
+    public AdaptiveOperationEngine(AccountRepository repository,
+                                   AccountValidator validator,
+                                   OperationMetrics metrics,
+                                   HistoryService history,
+                                   PlatformTransactionManager transactionManager,
+                                   OperationProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.validator = validator;
+        this.metrics = metrics;
+        this.history = history;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        final OperationProperties.Adaptive adaptive = properties.getAdaptive();
+        this.tracker = new ConflictTracker(adaptive.getMaxTrackedAccounts(), adaptive.getTrackedTtl(),
+                adaptive.getSmoothing(), adaptive.getHighConflictRate(), adaptive.getLowConflictRate());
+        this.maxAttempts = adaptive.getMaxAttempts();
+        this.backoffNanos = adaptive.getBackoff().toNanos();
+        this.maxBackoffNanos = adaptive.getMaxBackoff().toNanos();
+        this.contendedLockWaitNanos = adaptive.getContendedLockWait().toNanos();
+        this.conflicts = Counter.builder("bank.operation.adaptive.conflicts")
+                .description("Optimistic writes that lost to a concurrent writer")
+                .register(meterRegistry);
+        this.switches = Counter.builder("bank.operation.adaptive.switches")
+                .description("Accounts switched between the optimistic and the pessimistic path")
+                .register(meterRegistry);
+        Gauge.builder("bank.operation.adaptive.tracked", tracker, ConflictTracker::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Account makeOperation(Operation operation) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // inside the caller's transaction (an idempotent request) a lost optimistic write would mark it
+            // rollback-only, and a retry would read the same stale entity again: queue on the row lock instead
+            return pessimistic(operation);
+        }
+
+        final UUID accountId = operation.getAccountId();
+        if (!tracker.isContended(accountId)) {
+            for (int attempt = 0; attempt < maxAttempts; attempt++) {
+                try {
+                    final Account account = transactionTemplate.execute(status -> optimistic(operation));
+                    record(accountId, false);
+                    return account;
+                } catch (OptimisticLockingFailureException e) {
+                    conflicts.increment();
+                    record(accountId, true);
+                    backoff(attempt);
+                }
+            }
+        }
+        return transactionTemplate.execute(status -> pessimistic(operation));
+    }
+
+    /**
+     * Whether operations on the account currently take the row lock.
+     */
+    public boolean isPessimistic(UUID accountId) {
+        return tracker.isContended(accountId);
+    }
+
+    private Account optimistic(Operation operation) {
+        metrics.timeCommit();
+        final Account account = repository.findById(operation.getAccountId()).orElseThrow();
+
+        final long validateStartedAt = System.nanoTime();
+        validator.validateOnOperation(account, operation);
+        metrics.recordValidate(validateStartedAt);
+
+        account.setBalance(operation.applyTo(account.getBalance()));
+
+        // the versioned UPDATE fails here, not at commit, so the retry loop sees the conflict
+        final long flushStartedAt = System.nanoTime();
+        final Account savedAccount = repository.saveAndFlush(account);
+        metrics.recordFlush(flushStartedAt);
+        history.record(HistoryEntry.of(operation, savedAccount.getBalance()));
+        return savedAccount;
+    }
+
+    private Account pessimistic(Operation operation) {
+        metrics.timeCommit();
+        final long lockStartedAt = System.nanoTime();
+        final Account lockedAccount = repository.findByIdAndLock(operation.getAccountId())
+                .orElseThrow();
+        metrics.recordLock(operation.getAccountId(), lockStartedAt);
+        record(operation.getAccountId(), System.nanoTime() - lockStartedAt >= contendedLockWaitNanos);
+
+        final long validateStartedAt = System.nanoTime();
+        validator.validateOnOperation(lockedAccount, operation);
+        metrics.recordValidate(validateStartedAt);
+
+        lockedAccount.setBalance(operation.applyTo(lockedAccount.getBalance()));
+
+        final long flushStartedAt = System.nanoTime();
+        final Account savedAccount = repository.saveAndFlush(lockedAccount);
+        metrics.recordFlush(flushStartedAt);
+        history.record(HistoryEntry.of(operation, savedAccount.getBalance()));
+        return savedAccount;
+    }
+
+    private void record(UUID accountId, boolean conflict) {
+        if (tracker.record(accountId, conflict)) {
+            switches.increment();
+        }
+    }
+
+    /**
+     * Full jitter: a random pause up to an exponentially growing cap, so retrying writers spread out.
+     */
+    private void backoff(int attempt) {
+        final long cap = Math.min(maxBackoffNanos, backoffNanos << Math.min(attempt, 20));
+        if (cap > 0) {
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(cap + 1));
+        }
+    }
+}
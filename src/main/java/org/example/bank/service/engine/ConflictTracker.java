@@ -0,0 +1,66 @@
+package org.example.bank.service.engine;
+
+import org.example.bank.cache.BoundedCache;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Exponentially weighted conflict rate per account, with hysteresis between two thresholds so an account
+ * near the boundary does not flip on every operation. Only accounts that have seen a conflict get an entry;
+ * entries are dropped by size and age, after which the account starts again as uncontended.
+ */
+public class ConflictTracker {
+    private final BoundedCache<UUID, Rate> rates;
+    private final double smoothing;
+    private final double highRate;
+    private final double lowRate;
+
+    public ConflictTracker(int maxAccounts, Duration ttl, double smoothing, double highRate, double lowRate) {
+        this.rates = new BoundedCache<>(maxAccounts, ttl);
+        this.smoothing = smoothing;
+        this.highRate = highRate;
+        this.lowRate = lowRate;
+    }
+
+    public boolean isContended(UUID accountId) {
+        final Rate rate = rates.get(accountId);
+        return rate != null && rate.contended;
+    }
+
+    /**
+     * @return true when the outcome switched the account between uncontended and contended
+     */
+    public boolean record(UUID accountId, boolean conflict) {
+        Rate rate = rates.get(accountId);
+        if (rate == null) {
+            if (!conflict) {
+                return false;
+            }
+            rate = new Rate();
+            rates.put(accountId, rate);
+        }
+        return rate.update(conflict ? 1 : 0);
+    }
+
+    public int size() {
+        return rates.size();
+    }
+
+    private class Rate {
+        private double value;
+        // written under the monitor, read without it on every operation
+        private volatile boolean contended;
+
+        private synchronized boolean update(double sample) {
+            value += smoothing * (sample - value);
+            final boolean wasContended = contended;
+            if (value >= highRate) {
+                contended = true;
+            } else if (value <= lowRate) {
+                contended = false;
+            }
+            return contended != wasContended;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.bank.service.engine;
+
+import org.example.bank.config.OperationProperties;
+import org.example.bank.metrics.OperationMetrics;
+import org.example.bank.model.Account;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.Operation;
+import org.example.bank.model.exception.CommonException;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.service.AccountLockOrder;
+import org.example.bank.service.AccountValidator;
+import org.example.bank.service.HistoryService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects concurrent operations into short batches that are validated in arrival order
+ * and written in one locked transaction.
+ * <p>
+ * Accounts are hashed to stripes. A caller enqueues its operation and takes the stripe lock;
+ * whoever holds the lock commits everything queued so far, so callers that get the lock later
+ * usually find their result ready. Only the lock holder uses a pooled connection.
+ * <p>
+ * Batches always commit in a transaction of their own. A caller that already has one (an idempotent request)
+ * is not queued at all: it takes the row lock in its transaction, see {@link LockedWrite}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank.operation", name = "mode", havingValue = "group-commit")
+public class GroupCommitOperationEngine implements OperationEngine {
+    private final AccountRepository repository;
+    private final AccountValidator validator;
+    private final OperationMetrics metrics;
+    private final HistoryService history;
+    private final TransactionTemplate transactionTemplate;
+    private final LockedWrite lockedWrite;
+    private final int maxBatchSize;
+    private final Stripe[] stripes;
+
+    public GroupCommitOperationEngine(AccountRepository repository,
+                                      AccountValidator validator,
+                                      OperationMetrics metrics,
+                                      HistoryService history,
+                                      PlatformTransactionManager transactionManager,
+                                      OperationProperties properties) {
+        this.repository = repository;
+        this.validator = validator;
+        this.metrics = metrics;
+        this.history = history;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.lockedWrite = new LockedWrite(repository, validator, metrics, history);
+        this.maxBatchSize = properties.getGroupCommit().getMaxBatchSize();
+        this.stripes = new Stripe[properties.getGroupCommit().getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public Account makeOperation(Operation operation) {
+        if (LockedWrite.isCallerTransactionActive()) {
+            return lockedWrite.apply(operation, this::resolve);
+        }
+
+        final PendingOperation pending = new PendingOperation(operation);
+        final Stripe stripe = stripes[Math.floorMod(operation.getAccountId().hashCode(), stripes.length)];
+        stripe.queue.add(pending);
+
+        // an operation is either still queued or part of a batch that completes before the lock is released
+        while (!pending.result.isDone()) {
+            stripe.lock.lock();
+            try {
+                if (!pending.result.isDone()) {
+                    commit(drain(stripe.queue));
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private List<PendingOperation> drain(Queue<PendingOperation> queue) {
+        final List<PendingOperation> batch = new ArrayList<>();
+        PendingOperation next;
+        while (batch.size() < maxBatchSize && (next = queue.poll()) != null) {
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void commit(List<PendingOperation> batch) {
+        // TreeMap keeps the lock order canonical and each account's operations in arrival order
+        final Map<UUID, List<PendingOperation>> byAccount = new TreeMap<>(AccountLockOrder.COMPARATOR);
+        batch.forEach(pending -> byAccount
+                .computeIfAbsent(pending.operation.getAccountId(), id -> new ArrayList<>())
+                .add(pending));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                metrics.timeCommit();
+                byAccount.forEach(this::apply);
+                history.record(batch.stream()
+                        .filter(pending -> pending.success != null)
+                        .map(pending -> HistoryEntry.of(pending.operation, pending.success.getBalance()))
+                        .toList());
+            });
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+            return;
+        }
+
+        batch.forEach(PendingOperation::complete);
+    }
+
+    private void apply(UUID accountId, List<PendingOperation> operations) {
+        final long lockStartedAt = System.nanoTime();
+        final Account lockedAccount = repository.findByIdAndLock(accountId).orElse(null);
+        metrics.recordLock(accountId, lockStartedAt);
+        if (lockedAccount == null) {
+            operations.forEach(pending -> pending.failure = new NoSuchElementException("No value present"));
+            return;
+        }
+
+        for (PendingOperation pending : operations) {
+            final CommonException rejection = validator.checkOnOperation(lockedAccount, pending.operation);
+            if (rejection != null) {
+                pending.failure = rejection;
+                continue;
+            }
+            lockedAccount.setBalance(pending.operation.applyTo(lockedAccount.getBalance()));
+            pending.success = lockedAccount.withBalance(lockedAccount.getBalance());
+        }
+        repository.save(lockedAccount);
+    }
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Queue<PendingOperation> queue = new ConcurrentLinkedQueue<>();
+    }
+
+    private static class PendingOperation {
+        private final Operation operation;
+        private final CompletableFuture<Account> result = new CompletableFuture<>();
+        private Account success;
+        private RuntimeException failure;
+
+        private PendingOperation(Operation operation) {
+            this.operation = operation;
+        }
+
+        private void complete() {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(success);
+            }
+        }
+    }
+}
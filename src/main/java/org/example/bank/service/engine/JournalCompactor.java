@@ -0,0 +1,68 @@
+package org.example.bank.service.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.bank.config.OperationProperties;
+import org.example.bank.model.Account;
+import org.example.bank.model.Money;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.repository.OperationJournalRepository;
+import org.example.bank.repository.OperationJournalRepository.PendingEntry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Folds the journal tail into account.balance. Every account is compacted in its own transaction
+ * under the account row lock. Folded entries are deleted with one statement per batch instead of being updated
+ * one by one, so journal rows are never rewritten; operation_history keeps the record of every operation.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bank.operation", name = "mode", havingValue = "journal")
+public class JournalCompactor {
+    private final AccountRepository repository;
+    private final OperationJournalRepository journal;
+    private final TransactionTemplate transactionTemplate;
+    private final OperationProperties.Journal properties;
+
+    public JournalCompactor(AccountRepository repository,
+                            OperationJournalRepository journal,
+                            PlatformTransactionManager transactionManager,
+                            OperationProperties properties) {
+        this.repository = repository;
+        this.journal = journal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties.getJournal();
+    }
+
+    @Scheduled(fixedDelayString = "${bank.operation.journal.compaction-interval:1000}")
+    public void compact() {
+        for (UUID accountId : journal.findAccountsWithPending(properties.getCompactionAccounts())) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> compact(accountId));
+            } catch (RuntimeException e) {
+                log.warn("Compaction of account {} failed", accountId, e);
+            }
+        }
+    }
+
+    private void compact(UUID accountId) {
+        final Account lockedAccount = repository.findByIdAndLock(accountId).orElse(null);
+        if (lockedAccount == null) {
+            return;
+        }
+
+        final List<PendingEntry> entries = journal.findPending(accountId, properties.getCompactionBatchSize());
+        long tail = 0;
+        for (PendingEntry entry : entries) {
+            tail = Money.add(tail, entry.amount());
+        }
+        journal.delete(entries);
+        lockedAccount.setBalance(Money.add(lockedAccount.getBalance(), tail));
+    }
+}
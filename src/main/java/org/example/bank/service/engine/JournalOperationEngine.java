@@ -0,0 +1,85 @@
+package org.example.bank.service.engine;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.metrics.OperationMetrics;
+import org.example.bank.model.Account;
+import org.example.bank.model.AccountView;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.Money;
+import org.example.bank.model.Operation;
+import org.example.bank.model.OperationType;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.repository.OperationJournalRepository;
+import org.example.bank.service.AccountValidator;
+import org.example.bank.service.HistoryService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Event-sourced engine: operations are appended to operation_journal instead of updating account.balance,
+ * which becomes a snapshot maintained by {@link JournalCompactor}.
+ * <p>
+ * Deposits are plain inserts. Withdrawals lock the account row, the same lock the compactor takes,
+ * so the snapshot plus tail they validate against cannot change underneath them.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank.operation", name = "mode", havingValue = "journal")
+@RequiredArgsConstructor
+public class JournalOperationEngine implements OperationEngine {
+    private final AccountRepository repository;
+    private final OperationJournalRepository journal;
+    private final AccountValidator validator;
+    private final OperationMetrics metrics;
+    private final HistoryService history;
+
+    @Override
+    @Transactional
+    public Account makeOperation(Operation operation) {
+        validator.validateAmount(operation);
+
+        metrics.timeCommit();
+        final Account account;
+        if (operation.getType() == OperationType.WITHDRAW) {
+            final long lockStartedAt = System.nanoTime();
+            account = repository.findByIdAndLock(operation.getAccountId()).orElseThrow();
+            metrics.recordLock(operation.getAccountId(), lockStartedAt);
+            validator.validateOnOperation(resolve(account), operation);
+        } else {
+            account = repository.findById(operation.getAccountId()).orElseThrow();
+        }
+
+        journal.append(List.of(operation));
+        final Account result = resolve(account);
+        history.record(HistoryEntry.of(operation, result.getBalance()));
+        return result;
+    }
+
+    @Override
+    public Account resolve(Account account) {
+        return account.withBalance(journal.findTotalBalance(account.getId()).orElseThrow());
+    }
+
+    /**
+     * The view already holds the row and the stripes, only the tail is added.
+     */
+    @Override
+    public AccountView resolve(AccountView view) {
+        return view.withBalance(Money.add(view.balance(), journal.findTail(view.id())));
+    }
+
+    /**
+     * Adds the tails of the whole chunk, read with one grouped query, to the balances of the views.
+     */
+    @Override
+    public List<AccountView> resolveAll(List<AccountView> views) {
+        final Map<UUID, Long> tails = journal.findTails(views.stream().map(AccountView::id).toList());
+        return views.stream()
+                .map(view -> view.withBalance(Money.add(view.balance(), tails.getOrDefault(view.id(), 0L))))
+                .toList();
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.bank.service.engine;
+
+import org.example.bank.metrics.OperationMetrics;
+import org.example.bank.model.Account;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.Operation;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.service.AccountValidator;
+import org.example.bank.service.HistoryService;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * One operation under SELECT ... FOR UPDATE in the caller's transaction, the way the pessimistic engine runs it.
+ * <p>
+ * Engines that otherwise commit on their own take this path when the caller already has a transaction, i.e. an
+ * idempotent request holding its key claim: the operation then commits or rolls back together with the claim,
+ * no operation of another caller ends up in that transaction, and no second pooled connection is needed.
+ */
+class LockedWrite {
+    private final AccountRepository repository;
+    private final AccountValidator validator;
+    private final OperationMetrics metrics;
+    private final HistoryService history;
+
+    LockedWrite(AccountRepository repository, AccountValidator validator, OperationMetrics metrics,
+                HistoryService history) {
+        this.repository = repository;
+        this.validator = validator;
+        this.metrics = metrics;
+        this.history = history;
+    }
+
+    static boolean isCallerTransactionActive() {
+        return TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    /**
+     * @param resolve the engine's balance of the locked row, see {@link OperationEngine#resolve(Account)}
+     */
+    Account apply(Operation operation, UnaryOperator<Account> resolve) {
+        metrics.timeCommit();
+        final long lockStartedAt = System.nanoTime();
+        final Account lockedAccount = repository.findByIdAndLock(operation.getAccountId())
+                .orElseThrow();
+        metrics.recordLock(operation.getAccountId(), lockStartedAt);
+
+        final Account resolvedAccount = resolve.apply(lockedAccount);
+        final long validateStartedAt = System.nanoTime();
+        validator.validateOnOperation(resolvedAccount, operation);
+        metrics.recordValidate(validateStartedAt);
+
+        // resolve may return the entity itself, copy before the entity changes
+        final Account result = resolvedAccount.withBalance(operation.applyTo(resolvedAccount.getBalance()));
+        lockedAccount.setBalance(operation.applyTo(lockedAccount.getBalance()));
+
+        final long flushStartedAt = System.nanoTime();
+        repository.saveAndFlush(lockedAccount);
+        metrics.recordFlush(flushStartedAt);
+        history.record(HistoryEntry.of(operation, result.getBalance()));
+        return result;
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.bank.service.engine;
+
+import org.example.bank.model.Account;
+import org.example.bank.model.AccountView;
+import org.example.bank.model.Operation;
+
+import java.util.List;
+
+/**
+ * Write strategy behind AccountService.makeOperation, selected with {@code bank.operation.mode}.
+ */
+public interface OperationEngine {
+
+    Account makeOperation(Operation operation);
+
+    /**
+     * Current state of a loaded account. Engines that keep part of the balance
+     * outside the account row add it here.
+     */
+    default Account resolve(Account account) {
+        return account;
+    }
+
+    /**
+     * Same as {@link #resolve(Account)} for a read-only projection.
+     */
+    default AccountView resolve(AccountView view) {
+        return view;
+    }
+
+    /**
+     * Same as {@link #resolve(AccountView)} for one chunk of a multi-get. Engines that read their part
+     * from the database override it to read the whole chunk at once.
+     */
+    default List<AccountView> resolveAll(List<AccountView> views) {
+        return views.stream()
+                .map(this::resolve)
+                .toList();
+    }
+}
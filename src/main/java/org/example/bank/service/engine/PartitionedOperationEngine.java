@@ -0,0 +1,280 @@
+package org.example.bank.service.engine;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bank.config.OperationProperties;
+import org.example.bank.metrics.OperationMetrics;
+import org.example.bank.model.Account;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.Operation;
+import org.example.bank.model.exception.CommonException;
+import org.example.bank.repository.AccountBalanceRepository;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.repository.AccountBalanceRepository.BalanceUpdate;
+import org.example.bank.service.AccountLockOrder;
+import org.example.bank.service.AccountValidator;
+import org.example.bank.service.HistoryService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Single-writer engine: accounts are hashed to partitions, each served by one thread that owns
+ * the balances of its accounts in memory and applies their operations without taking row locks.
+ * <p>
+ * A partition drains its queue, applies the operations in arrival order and persists the batch in one
+ * transaction of compare-and-set updates, ordered like every other multi-row writer. A row changed by
+ * another writer (transfers, batches, unstriping) fails its update; the partition reloads it and applies
+ * that account's operations again. Callers are completed only after the batch is committed.
+ * <p>
+ * A caller that already has a transaction (an idempotent request) is not queued: it writes the row under the
+ * row lock in its own transaction, see {@link LockedWrite}, and the partition's compare-and-set picks the change up.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bank.operation", name = "mode", havingValue = "partitioned")
+public class PartitionedOperationEngine implements OperationEngine {
+    private final AccountBalanceRepository repository;
+    private final AccountValidator validator;
+    private final OperationMetrics metrics;
+    private final HistoryService history;
+    private final TransactionTemplate transactionTemplate;
+    private final LockedWrite lockedWrite;
+    private final int maxBatchSize;
+    private final int maxCachedAccounts;
+    private final Partition[] partitions;
+
+    public PartitionedOperationEngine(AccountBalanceRepository repository,
+                                      AccountRepository accountRepository,
+                                      AccountValidator validator,
+                                      OperationMetrics metrics,
+                                      HistoryService history,
+                                      PlatformTransactionManager transactionManager,
+                                      OperationProperties properties) {
+        this.repository = repository;
+        this.validator = validator;
+        this.metrics = metrics;
+        this.history = history;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lockedWrite = new LockedWrite(accountRepository, validator, metrics, history);
+        this.maxBatchSize = properties.getPartitioned().getMaxBatchSize();
+        this.maxCachedAccounts = properties.getPartitioned().getMaxCachedAccounts();
+        final int count = properties.getPartitioned().getPartitions() > 0
+                ? properties.getPartitioned().getPartitions()
+                : Runtime.getRuntime().availableProcessors();
+        this.partitions = new Partition[count];
+        for (int i = 0; i < count; i++) {
+            partitions[i] = new Partition(i);
+        }
+    }
+
+    @Override
+    public Account makeOperation(Operation operation) {
+        validator.validateAmount(operation);
+        if (LockedWrite.isCallerTransactionActive()) {
+            // blocking on the partition here would hold the caller's connection while the partition needs one
+            return lockedWrite.apply(operation, this::resolve);
+        }
+
+        final PendingOperation pending = new PendingOperation(operation);
+        partitions[Math.floorMod(operation.getAccountId().hashCode(), partitions.length)].queue.add(pending);
+
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Partition partition : partitions) {
+            partition.executor.shutdownNow();
+        }
+    }
+
+    private class Partition {
+        private final BlockingQueue<PendingOperation> queue = new LinkedBlockingQueue<>();
+        // only touched by the partition thread
+        private final Map<UUID, Account> accounts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Account> eldest) {
+                return size() > maxCachedAccounts;
+            }
+        };
+        private final ExecutorService executor;
+
+        private Partition(int index) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "operation-partition-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.execute(this::run);
+        }
+
+        private void run() {
+            final List<PendingOperation> batch = new ArrayList<>();
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                queue.drainTo(batch, maxBatchSize - 1);
+                try {
+                    commit(batch);
+                } catch (RuntimeException e) {
+                    // the thread is the partition's only writer, it has to outlive any batch
+                    log.error("Batch of {} operations failed outside its transaction", batch.size(), e);
+                    batch.forEach(pending -> pending.result.completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void commit(List<PendingOperation> batch) {
+            // TreeMap keeps the update order canonical and each account's operations in arrival order
+            final Map<UUID, List<PendingOperation>> byAccount = new TreeMap<>(AccountLockOrder.COMPARATOR);
+            batch.forEach(pending -> byAccount
+                    .computeIfAbsent(pending.operation.getAccountId(), id -> new ArrayList<>())
+                    .add(pending));
+
+            final Map<UUID, Account> current = new HashMap<>();
+            final List<UUID> missing = new ArrayList<>();
+            byAccount.keySet().forEach(id -> {
+                final Account account = accounts.get(id);
+                if (account != null) {
+                    current.put(id, account);
+                } else {
+                    missing.add(id);
+                }
+            });
+
+            final Map<UUID, Account> written;
+            try {
+                repository.findAllById(missing).forEach(account -> current.put(account.getId(), account));
+                written = transactionTemplate.execute(status -> {
+                    metrics.timeCommit();
+                    final Map<UUID, Account> result = write(byAccount, current);
+                    history.record(batch.stream()
+                            .filter(pending -> pending.success != null)
+                            .map(pending -> HistoryEntry.of(pending.operation, pending.success.getBalance()))
+                            .toList());
+                    return result;
+                });
+            } catch (RuntimeException e) {
+                byAccount.keySet().forEach(accounts::remove);
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+                return;
+            }
+
+            byAccount.keySet().forEach(id -> {
+                final Account account = written.get(id);
+                if (account != null) {
+                    accounts.put(id, account);
+                } else {
+                    accounts.remove(id);
+                }
+            });
+            batch.forEach(PendingOperation::complete);
+        }
+
+        private Map<UUID, Account> write(Map<UUID, List<PendingOperation>> byAccount, Map<UUID, Account> current) {
+            final Map<UUID, Account> written = new HashMap<>();
+            Map<UUID, List<PendingOperation>> remaining = byAccount;
+            while (!remaining.isEmpty()) {
+                final List<BalanceUpdate> updates = new ArrayList<>();
+                final List<Account> results = new ArrayList<>();
+                remaining.forEach((id, operations) -> {
+                    final Account account = current.get(id);
+                    if (account == null) {
+                        operations.forEach(pending -> pending.fail(new NoSuchElementException("No value present")));
+                        return;
+                    }
+                    final Account result = apply(account, operations);
+                    updates.add(new BalanceUpdate(id, account.getBalance(), result.getBalance()));
+                    results.add(result);
+                });
+
+                final int[] counts = repository.compareAndSet(updates);
+                final Map<UUID, List<PendingOperation>> stale = new TreeMap<>(AccountLockOrder.COMPARATOR);
+                for (int i = 0; i < counts.length; i++) {
+                    final UUID id = updates.get(i).accountId();
+                    if (counts[i] == 0) {
+                        stale.put(id, remaining.get(id));
+                        current.remove(id);
+                    } else {
+                        written.put(id, results.get(i));
+                    }
+                }
+                repository.findAllById(stale.keySet()).forEach(account -> current.put(account.getId(), account));
+                remaining = stale;
+            }
+            return written;
+        }
+
+        private Account apply(Account account, List<PendingOperation> operations) {
+            Account state = account;
+            for (PendingOperation pending : operations) {
+                final CommonException rejection = validator.checkOnOperation(state, pending.operation);
+                if (rejection != null) {
+                    pending.fail(rejection);
+                    continue;
+                }
+                state = state.withBalance(pending.operation.applyTo(state.getBalance()));
+                pending.succeed(state);
+            }
+            return state;
+        }
+    }
+
+    private static class PendingOperation {
+        private final Operation operation;
+        private final CompletableFuture<Account> result = new CompletableFuture<>();
+        private Account success;
+        private RuntimeException failure;
+
+        private PendingOperation(Operation operation) {
+            this.operation = operation;
+        }
+
+        private void succeed(Account account) {
+            success = account;
+            failure = null;
+        }
+
+        private void fail(RuntimeException e) {
+            success = null;
+            failure = e;
+        }
+
+        private void complete() {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(success);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.bank.service.engine;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bank.metrics.OperationMetrics;
+import org.example.bank.model.Account;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.Operation;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.service.AccountValidator;
+import org.example.bank.service.HistoryService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Default engine: every operation locks the account row with SELECT ... FOR UPDATE in its own transaction.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank.operation", name = "mode", havingValue = "pessimistic", matchIfMissing = true)
+@RequiredArgsConstructor
+public class PessimisticOperationEngine implements OperationEngine {
+    private final AccountRepository repository;
+    private final AccountValidator validator;
+    private final OperationMetrics metrics;
+    private final HistoryService history;
+
+    @Override
+    @Transactional
+    public Account makeOperation(Operation operation) {
+        metrics.timeCommit();
+        final long lockStartedAt = System.nanoTime();
+        final Account lockedAccount = repository.findByIdAndLock(operation.getAccountId())
+                .orElseThrow();
+        metrics.recordLock(operation.getAccountId(), lockStartedAt);
+
+        final long validateStartedAt = System.nanoTime();
+        validator.validateOnOperation(lockedAccount, operation);
+        metrics.recordValidate(validateStartedAt);
+
+        lockedAccount.setBalance(operation.applyTo(lockedAccount.getBalance()));
+
+        final long flushStartedAt = System.nanoTime();
+        final Account savedAccount = repository.saveAndFlush(lockedAccount);
+        metrics.recordFlush(flushStartedAt);
+        history.record(HistoryEntry.of(operation, savedAccount.getBalance()));
+        return savedAccount;
+    }
+}
@@ -0,0 +1,394 @@
+package org.example.bank.service.engine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bank.config.OperationProperties;
+import org.example.bank.metrics.OperationMetrics;
+import org.example.bank.model.Account;
+import org.example.bank.model.AccountView;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.Money;
+import org.example.bank.model.Operation;
+import org.example.bank.repository.AccountBalanceRepository;
+import org.example.bank.repository.AccountBalanceRepository.BalanceDelta;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.repository.WalCheckpointRepository;
+import org.example.bank.repository.WalCheckpointRepository.AccountAt;
+import org.example.bank.service.AccountLockOrder;
+import org.example.bank.service.AccountValidator;
+import org.example.bank.service.HistoryService;
+import org.example.bank.wal.WalRecord;
+import org.example.bank.wal.WriteAheadLog;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind engine: an operation is applied to the account's balance in memory, appended to a local
+ * {@link WriteAheadLog} and acknowledged once the log is forced to disk, without touching the database.
+ * A flusher thread applies the durable records to account in large batches of relative updates and moves
+ * this instance's checkpoint in wal_checkpoint in the same transaction, so a record is in the row exactly when
+ * its LSN is at or below the checkpoint. On startup the records past the checkpoint are applied before the engine
+ * serves anything.
+ * <p>
+ * The in-memory balance is the row plus the account's records past the checkpoint. Transfers and batches write
+ * rows themselves: resolving an account for them holds its in-memory lock until their transaction ends and makes
+ * the next operation reload it, so neither side validates against a balance the other one is changing.
+ * An operation that runs in the caller's transaction (an idempotent request) is written to the row the same way,
+ * see {@link LockedWrite}, so it commits or rolls back with the caller.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bank.operation", name = "mode", havingValue = "write-behind")
+public class WriteBehindOperationEngine implements OperationEngine {
+    private final AccountBalanceRepository balanceRepository;
+    private final WalCheckpointRepository checkpointRepository;
+    private final AccountValidator validator;
+    private final OperationMetrics metrics;
+    private final HistoryService history;
+    private final TransactionTemplate transactionTemplate;
+    private final LockedWrite lockedWrite;
+    private final String nodeId;
+    private final int flushBatchSize;
+    private final long flushIntervalMillis;
+    private final int maxCachedAccounts;
+    private final WriteAheadLog wal;
+    private final Map<UUID, AccountState> states = new ConcurrentHashMap<>();
+    private final ExecutorService flusher;
+    private volatile boolean stopped;
+    // only touched by the flusher thread, and by shutdown once it is gone
+    private List<WalRecord> failedBatch = List.of();
+
+    public WriteBehindOperationEngine(AccountBalanceRepository balanceRepository,
+                                      AccountRepository accountRepository,
+                                      WalCheckpointRepository checkpointRepository,
+                                      AccountValidator validator,
+                                      OperationMetrics metrics,
+                                      HistoryService history,
+                                      PlatformTransactionManager transactionManager,
+                                      OperationProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this.balanceRepository = balanceRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.validator = validator;
+        this.metrics = metrics;
+        this.history = history;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lockedWrite = new LockedWrite(accountRepository, validator, metrics, history);
+        final OperationProperties.WriteBehind writeBehind = properties.getWriteBehind();
+        this.nodeId = writeBehind.getNodeId();
+        this.flushBatchSize = writeBehind.getFlushBatchSize();
+        this.flushIntervalMillis = writeBehind.getFlushInterval().toMillis();
+        this.maxCachedAccounts = writeBehind.getMaxCachedAccounts();
+        this.wal = new WriteAheadLog(Path.of(writeBehind.getDirectory()), writeBehind.getSegmentSize().toBytes());
+
+        final List<WalRecord> recovered = wal.recover(checkpointRepository.findOrCreate(nodeId));
+        for (int from = 0; from < recovered.size(); from += flushBatchSize) {
+            final List<WalRecord> batch = recovered.subList(from, Math.min(from + flushBatchSize, recovered.size()));
+            write(batch);
+            wal.truncate(batch.get(batch.size() - 1).lsn());
+        }
+        if (!recovered.isEmpty()) {
+            log.info("Applied {} write-ahead log records left from the previous run", recovered.size());
+        }
+
+        Gauge.builder("bank.operation.write-behind.unflushed", wal, WriteAheadLog::unflushedCount)
+                .description("Acknowledged operations not applied to the account table yet")
+                .register(meterRegistry);
+        this.flusher = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "write-behind-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.execute(this::runFlusher);
+    }
+
+    @Override
+    public Account makeOperation(Operation operation) {
+        validator.validateAmount(operation);
+        if (LockedWrite.isCallerTransactionActive()) {
+            return lockedWrite.apply(operation, this::resolve);
+        }
+
+        final UUID id = operation.getAccountId();
+        final long lockStartedAt = System.nanoTime();
+        final AccountState state = lock(id);
+        final Account result;
+        final long lsn;
+        try {
+            metrics.recordLock(id, lockStartedAt);
+            if (!state.loaded) {
+                load(id, state);
+            }
+            final Account account = state.toAccount(id);
+            final long validateStartedAt = System.nanoTime();
+            validator.validateOnOperation(account, operation);
+            metrics.recordValidate(validateStartedAt);
+
+            final long balance = operation.applyTo(state.balance);
+            lsn = wal.append(id, operation.getType(), operation.getAmount(), balance);
+            state.balance = balance;
+            state.unflushed.add(new Delta(lsn, Money.subtract(balance, account.getBalance())));
+            result = account.withBalance(balance);
+        } catch (NoSuchElementException e) {
+            retireIfFlushed(id, state);
+            throw e;
+        } finally {
+            state.lock.unlock();
+        }
+
+        // outside the account lock: concurrent operations on it share the force
+        final long flushStartedAt = System.nanoTime();
+        wal.sync(lsn);
+        metrics.recordFlush(flushStartedAt);
+        return result;
+    }
+
+    @Override
+    public Account resolve(Account account) {
+        final UUID id = account.getId();
+        final AccountState state = lock(id);
+        final long balance;
+        try {
+            // the caller commits on top of this balance, it must not include anything a crash could still lose
+            state.lastLsn().ifPresent(wal::sync);
+            balance = Money.add(account.getBalance(), state.unflushedAfter(checkpointRepository.find(nodeId)));
+            state.loaded = false;
+        } catch (RuntimeException e) {
+            state.lock.unlock();
+            throw e;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    retireIfFlushed(id, state);
+                    state.lock.unlock();
+                }
+            });
+        } else {
+            retireIfFlushed(id, state);
+            state.lock.unlock();
+        }
+        return account.withBalance(balance);
+    }
+
+    @Override
+    public AccountView resolve(AccountView view) {
+        final AccountState state = states.get(view.id());
+        if (state == null) {
+            return view;
+        }
+        state.lock.lock();
+        try {
+            if (state.retired) {
+                // retired with nothing left to flush, the row is the balance
+                return view;
+            }
+            if (!state.loaded) {
+                load(view.id(), state);
+            }
+            return view.withBalance(state.balance);
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopped = true;
+        flusher.shutdown();
+        flusher.awaitTermination(1, TimeUnit.MINUTES);
+        try {
+            if (!failedBatch.isEmpty()) {
+                flush(failedBatch);
+            }
+            wal.sync(wal.lastLsn());
+            for (List<WalRecord> batch = wal.takeDurable(flushBatchSize); !batch.isEmpty();
+                 batch = wal.takeDurable(flushBatchSize)) {
+                flush(batch);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush the write-ahead log on shutdown, it is applied on the next start", e);
+        } finally {
+            wal.close();
+        }
+    }
+
+    private void runFlusher() {
+        while (!stopped) {
+            try {
+                if (failedBatch.isEmpty()) {
+                    failedBatch = wal.takeDurable(flushBatchSize);
+                }
+                if (failedBatch.isEmpty()) {
+                    Thread.sleep(flushIntervalMillis);
+                    continue;
+                }
+                flush(failedBatch);
+                failedBatch = List.of();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush {} write-ahead log records, retrying", failedBatch.size(), e);
+                try {
+                    Thread.sleep(flushIntervalMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Only {@link #write} may throw: whatever fails after it must not hand the committed batch back to be retried.
+     */
+    private void flush(List<WalRecord> batch) {
+        write(batch);
+        final long checkpoint = batch.get(batch.size() - 1).lsn();
+
+        final Set<UUID> ids = new LinkedHashSet<>();
+        batch.forEach(record -> ids.add(record.accountId()));
+        for (UUID id : ids) {
+            final AccountState state = states.get(id);
+            if (state == null) {
+                continue;
+            }
+            state.lock.lock();
+            try {
+                while (!state.unflushed.isEmpty() && state.unflushed.peekFirst().lsn() <= checkpoint) {
+                    state.unflushed.pollFirst();
+                }
+                if (states.size() > maxCachedAccounts) {
+                    retireIfFlushed(id, state);
+                }
+            } finally {
+                state.lock.unlock();
+            }
+        }
+
+        try {
+            wal.truncate(checkpoint);
+        } catch (UncheckedIOException e) {
+            // the segments are past the checkpoint either way, the next truncation deletes them
+            log.warn("Failed to truncate the write-ahead log to {}", checkpoint, e);
+        }
+    }
+
+    /**
+     * Applies the records and moves the checkpoint to the last one in one transaction. The checkpoint moves first:
+     * a batch that already committed, e.g. one retried after the commit acknowledgement was lost, finds it there
+     * and is not added to the rows again.
+     */
+    private void write(List<WalRecord> batch) {
+        // TreeMap keeps the update order canonical, like every other multi-row writer
+        final Map<UUID, Long> deltas = new TreeMap<>(AccountLockOrder.COMPARATOR);
+        final List<HistoryEntry> entries = new ArrayList<>(batch.size());
+        for (WalRecord record : batch) {
+            deltas.merge(record.accountId(), record.delta(), Money::add);
+            entries.add(HistoryEntry.of(record.toOperation(), record.balance()));
+        }
+        final long checkpoint = batch.get(batch.size() - 1).lsn();
+        transactionTemplate.executeWithoutResult(status -> {
+            metrics.timeCommit();
+            if (!checkpointRepository.update(nodeId, checkpoint)) {
+                log.info("Write-ahead log records up to {} were already applied", checkpoint);
+                return;
+            }
+            balanceRepository.add(deltas.entrySet().stream()
+                    .map(entry -> new BalanceDelta(entry.getKey(), entry.getValue()))
+                    .toList());
+            history.record(entries);
+        });
+    }
+
+    /**
+     * Locks the account's state, creating it if needed.
+     */
+    private AccountState lock(UUID id) {
+        while (true) {
+            final AccountState state = states.computeIfAbsent(id, key -> new AccountState());
+            state.lock.lock();
+            if (!state.retired) {
+                return state;
+            }
+            state.lock.unlock();
+        }
+    }
+
+    private void load(UUID id, AccountState state) {
+        final AccountAt row = checkpointRepository.findAccount(id, nodeId)
+                .orElseThrow(() -> new NoSuchElementException("No value present"));
+        state.balance = Money.add(row.balance(), state.unflushedAfter(row.lsn()));
+        state.stripeCount = row.stripeCount();
+        state.loaded = true;
+    }
+
+    /**
+     * Drops the state of a locked account with nothing left to flush; its row is its balance again.
+     */
+    private void retireIfFlushed(UUID id, AccountState state) {
+        if (state.unflushed.isEmpty()) {
+            states.remove(id, state);
+            state.retired = true;
+        }
+    }
+
+    private static class AccountState {
+        private final ReentrantLock lock = new ReentrantLock();
+        // the rest is guarded by lock
+        private final ArrayDeque<Delta> unflushed = new ArrayDeque<>();
+        private long balance;
+        private int stripeCount;
+        private boolean loaded;
+        private boolean retired;
+
+        private long unflushedAfter(long checkpoint) {
+            long sum = 0;
+            for (Delta delta : unflushed) {
+                if (delta.lsn() > checkpoint) {
+                    sum = Money.add(sum, delta.amount());
+                }
+            }
+            return sum;
+        }
+
+        private OptionalLong lastLsn() {
+            return unflushed.isEmpty() ? OptionalLong.empty() : OptionalLong.of(unflushed.peekLast().lsn());
+        }
+
+        private Account toAccount(UUID id) {
+            final Account account = new Account();
+            account.setId(id);
+            account.setBalance(balance);
+            account.setStripeCount(stripeCount);
+            return account;
+        }
+    }
+
+    private record Delta(long lsn, long amount) {
+    }
+}
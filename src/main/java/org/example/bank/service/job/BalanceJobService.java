@@ -0,0 +1,289 @@
+package org.example.bank.service.job;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bank.config.JobProperties;
+import org.example.bank.model.Account;
+import org.example.bank.model.BalanceJob;
+import org.example.bank.model.BalanceJobRequest;
+import org.example.bank.model.BalanceJobType;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.Money;
+import org.example.bank.model.Operation;
+import org.example.bank.model.OperationType;
+import org.example.bank.model.exception.JobParameterException;
+import org.example.bank.repository.AccountBalanceRepository;
+import org.example.bank.repository.AccountBalanceRepository.Balance;
+import org.example.bank.repository.AccountBalanceRepository.BalanceDelta;
+import org.example.bank.repository.BalanceJobRepository;
+import org.example.bank.repository.BalanceJobRepository.Chunk;
+import org.example.bank.service.BalanceCache;
+import org.example.bank.service.HistoryService;
+import org.example.bank.service.engine.OperationEngine;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk jobs over every plain account, e.g. nightly interest or fees.
+ * <p>
+ * A job first plans its keyset ranges of {@code chunk-size} ids into balance_job_chunk, walking the primary key
+ * index only. Ranges are then written in parallel: each one is locked, updated with one JDBC batch and marked done
+ * in a single transaction, so a crash loses at most the ranges in flight and a resumed job skips everything that
+ * committed. Accounts created after planning past the last range are not visited. Every locked account is resolved
+ * by the operation engine, so the job sees, and write-behind waits for, what the engine holds outside the row.
+ */
+@Slf4j
+@Service
+public class BalanceJobService {
+    private static final int MAX_ID_LENGTH = 64;
+    private static final int MAX_RATE = 10000;
+    private static final int PLAN_BATCH_SIZE = 500;
+
+    private final BalanceJobRepository repository;
+    private final AccountBalanceRepository balanceRepository;
+    private final HistoryService history;
+    private final OperationEngine operationEngine;
+    private final BalanceCache balanceCache;
+    private final TransactionTemplate transactionTemplate;
+    private final JobProperties properties;
+    private final JobThrottle throttle;
+    private final ExecutorService coordinator;
+    private final ExecutorService workers;
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public BalanceJobService(BalanceJobRepository repository,
+                             AccountBalanceRepository balanceRepository,
+                             HistoryService history,
+                             OperationEngine operationEngine,
+                             BalanceCache balanceCache,
+                             TransactionTemplate transactionTemplate,
+                             JobProperties properties,
+                             DataSource dataSource) {
+        this.repository = repository;
+        this.balanceRepository = balanceRepository;
+        this.history = history;
+        this.operationEngine = operationEngine;
+        this.balanceCache = balanceCache;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.throttle = new JobThrottle(dataSource, properties.getMaxRate(), properties.getBackoff());
+        final int parallelism = properties.getParallelism() > 0
+                ? properties.getParallelism()
+                : throttle.defaultParallelism();
+        // jobs run one after another, their ranges share the worker pool
+        this.coordinator = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "balance-job"));
+        final AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism,
+                runnable -> daemon(runnable, "balance-job-worker-" + workerCount.getAndIncrement()));
+    }
+
+    /**
+     * Creates the job, or finds the one with this id, and runs it in the background.
+     */
+    public BalanceJob start(BalanceJobRequest request) {
+        final BalanceJob job = create(request);
+        if (job.status() != BalanceJob.Status.DONE) {
+            submit(job.id());
+        }
+        return get(job.id());
+    }
+
+    public BalanceJob create(BalanceJobRequest request) {
+        final long parameter = validate(request);
+        try {
+            repository.insert(request.id(), request.type(), parameter);
+        } catch (DuplicateKeyException e) {
+            final BalanceJob existing = get(request.id());
+            if (existing.type() != request.type() || existing.parameter() != parameter) {
+                throw new JobParameterException("id", "already used for another job");
+            }
+        }
+        return get(request.id());
+    }
+
+    public BalanceJob get(String id) {
+        return repository.find(id).orElseThrow(() -> new NoSuchElementException("No value present"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        if (properties.isResumeOnStartup()) {
+            repository.findUnfinished().forEach(this::submit);
+        }
+    }
+
+    /**
+     * Plans what is left to plan, writes the pending ranges and marks the job done. Safe to call again
+     * after a failure or on another instance: committed ranges are skipped.
+     */
+    public void run(String id) throws InterruptedException {
+        plan(id);
+        process(get(id));
+        repository.finish(id);
+        log.info("Balance job {} done", id);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // interrupted jobs stay unfinished and are resumed on the next start
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void submit(String id) {
+        if (!running.add(id)) {
+            return;
+        }
+        coordinator.execute(() -> {
+            try {
+                run(id);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Balance job {} failed", id, e);
+                repository.updateStatus(id, BalanceJob.Status.FAILED, String.valueOf(e.getMessage()));
+            } finally {
+                running.remove(id);
+            }
+        });
+    }
+
+    /**
+     * Appends ranges after the last planned one until the keyspace is covered. Every batch of ranges
+     * commits on its own, so planning resumes where it stopped too.
+     */
+    private void plan(String id) {
+        if (get(id).chunks() != null) {
+            repository.updateStatus(id, BalanceJob.Status.RUNNING, null);
+            return;
+        }
+        repository.updateStatus(id, BalanceJob.Status.PLANNING, null);
+
+        final Optional<Chunk> last = repository.findLastChunk(id);
+        UUID fromId = last.map(Chunk::toId).orElse(null);
+        int chunkNo = last.map(chunk -> chunk.chunkNo() + 1).orElse(0);
+        final List<Chunk> chunks = new ArrayList<>(PLAN_BATCH_SIZE);
+        while (true) {
+            final Optional<UUID> toId = balanceRepository.findKeyAt(fromId, properties.getChunkSize() - 1);
+            // the tail shorter than a chunk ends at the last id
+            final Optional<UUID> end = toId.isPresent() ? toId : balanceRepository.findLastKey(fromId);
+            if (end.isEmpty()) {
+                break;
+            }
+            chunks.add(new Chunk(id, chunkNo++, fromId, end.get()));
+            fromId = end.get();
+            if (chunks.size() == PLAN_BATCH_SIZE) {
+                repository.insertChunks(chunks);
+                chunks.clear();
+            }
+            if (toId.isEmpty()) {
+                break;
+            }
+        }
+        if (!chunks.isEmpty()) {
+            repository.insertChunks(chunks);
+        }
+        repository.finishPlanning(id, chunkNo);
+    }
+
+    private void process(BalanceJob job) throws InterruptedException {
+        final List<Future<?>> futures = new ArrayList<>();
+        for (Chunk chunk : repository.findPendingChunks(job.id())) {
+            futures.add(workers.submit(() -> {
+                throttle.acquire(properties.getChunkSize());
+                write(job, chunk);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    private void write(BalanceJob job, Chunk chunk) {
+        final List<BalanceDelta> deltas = transactionTemplate.execute(status -> {
+            if (repository.lockChunk(chunk)) {
+                return List.of();
+            }
+            final List<BalanceDelta> changes = new ArrayList<>();
+            final List<HistoryEntry> entries = new ArrayList<>();
+            for (Balance locked : balanceRepository.findPlainInRangeAndLock(chunk.fromId(), chunk.toId())) {
+                // the engine may keep part of the balance outside the row, deltas are still added to the row
+                final long balance = operationEngine.resolve(toAccount(locked)).getBalance();
+                final long delta = job.type().delta(balance, job.parameter());
+                if (delta != 0) {
+                    changes.add(new BalanceDelta(locked.accountId(), delta));
+                    entries.add(HistoryEntry.of(new Operation(locked.accountId(),
+                                    delta > 0 ? OperationType.DEPOSIT : OperationType.WITHDRAW, Math.abs(delta)),
+                            Money.add(balance, delta)));
+                }
+            }
+            balanceRepository.add(changes);
+            history.record(entries);
+            repository.markDone(chunk, changes.size());
+            return changes;
+        });
+        deltas.forEach(delta -> balanceCache.invalidate(delta.accountId()));
+    }
+
+    private static Account toAccount(Balance balance) {
+        final Account account = new Account();
+        account.setId(balance.accountId());
+        account.setBalance(balance.balance());
+        account.setStripeCount(0);
+        return account;
+    }
+
+    private static long validate(BalanceJobRequest request) {
+        if (request.id() == null || request.id().isBlank() || request.id().length() > MAX_ID_LENGTH) {
+            throw new JobParameterException("id", "should be from 1 to " + MAX_ID_LENGTH + " characters");
+        }
+        if (request.type() == null) {
+            throw new JobParameterException("type", "is required");
+        }
+        if (request.type() == BalanceJobType.INTEREST) {
+            if (request.rate() == null || request.rate() < 1 || request.rate() > MAX_RATE) {
+                throw new JobParameterException("rate", "should be from 1 to " + MAX_RATE + " basis points");
+            }
+            return request.rate();
+        }
+        if (request.amount() == null || request.amount() <= 0) {
+            throw new JobParameterException("amount", "should be positive");
+        }
+        return request.amount();
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        final Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.bank.service.job;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a bulk job behind online traffic. Workers hand out time slots so all of them together stay under
+ * {@code maxRate} accounts per second, and a range is not started while any thread waits for a pooled connection.
+ */
+class JobThrottle {
+    private final HikariDataSource hikari;
+    private final long backoffNanos;
+    private final long nanosPerAccount;
+    private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+    JobThrottle(DataSource dataSource, int maxRate, Duration backoff) {
+        this.hikari = hikari(dataSource);
+        this.backoffNanos = backoff.toNanos();
+        this.nanosPerAccount = maxRate > 0 ? TimeUnit.SECONDS.toNanos(1) / maxRate : 0;
+    }
+
+    /**
+     * Connections a job may use at once when no parallelism is configured: half the pool, the rest stays online.
+     */
+    int defaultParallelism() {
+        return hikari == null ? 1 : Math.max(1, hikari.getMaximumPoolSize() / 2);
+    }
+
+    void acquire(int accounts) throws InterruptedException {
+        if (nanosPerAccount > 0) {
+            final long cost = nanosPerAccount * accounts;
+            final long now = System.nanoTime();
+            final long slot = nextSlot.getAndAccumulate(now, (next, current) -> Math.max(next, current) + cost);
+            final long wait = Math.max(slot, now) - now;
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+        while (connectionsAwaited()) {
+            TimeUnit.NANOSECONDS.sleep(backoffNanos);
+        }
+    }
+
+    private boolean connectionsAwaited() {
+        // the pool bean only exists once the pool has started
+        final HikariPoolMXBean pool = hikari == null ? null : hikari.getHikariPoolMXBean();
+        return pool != null && pool.getThreadsAwaitingConnection() > 0;
+    }
+
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            // not a Hikari pool
+        }
+        return null;
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.bank.wal;
+
+import org.example.bank.model.Operation;
+import org.example.bank.model.OperationType;
+
+import java.util.UUID;
+
+/**
+ * One acknowledged operation in the write-ahead log.
+ *
+ * @param lsn     log sequence number, consecutive over all segments
+ * @param balance the account balance right after the operation, in minor units
+ */
+public record WalRecord(long lsn, UUID accountId, OperationType type, long amount, long balance) {
+
+    /**
+     * Signed change of the balance.
+     */
+    public long delta() {
+        return type == OperationType.DEPOSIT ? amount : -amount;
+    }
+
+    public Operation toOperation() {
+        return new Operation(accountId, type, amount);
+    }
+}
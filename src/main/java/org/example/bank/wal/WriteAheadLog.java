@@ -0,0 +1,278 @@
+package org.example.bank.wal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.bank.model.OperationType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of fixed size records in memory-mapped segment files named after their first LSN.
+ * <p>
+ * A record is a CRC32C followed by lsn, account id, type, amount and balance. Appends only copy into the mapping;
+ * {@link #sync} forces it to disk, and concurrent callers share one force: whoever gets the sync lock forces
+ * everything appended so far, the others find their LSN durable when they get it. A segment is forced before the
+ * next one is started, so durability is always a prefix of the log.
+ * <p>
+ * Recovery reads records while the CRC matches and the LSN is the next one; a torn or never written record ends
+ * the segment. Appends then continue in a new segment named after the next LSN, so the log goes on in the segment
+ * whose name follows the last valid record, and ends where no segment does.
+ */
+@Slf4j
+public class WriteAheadLog implements AutoCloseable {
+    public static final int RECORD_SIZE = 4 + 8 + 16 + 1 + 8 + 8;
+    private static final int PAYLOAD_SIZE = RECORD_SIZE - 4;
+    private static final OperationType[] TYPES = OperationType.values();
+    private static final String SUFFIX = ".wal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Object syncLock = new Object();
+    private final CRC32C crc = new CRC32C();
+    // first LSN to segment file, oldest first
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final ArrayDeque<WalRecord> unflushed = new ArrayDeque<>();
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long nextLsn = 1;
+    private volatile long durableLsn;
+
+    public WriteAheadLog(Path directory, long segmentSize) {
+        if (segmentSize < RECORD_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size should be from " + RECORD_SIZE + " to "
+                    + Integer.MAX_VALUE + " bytes but is " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = (int) segmentSize;
+    }
+
+    /**
+     * Reads the existing segments and opens a new one for appends. Must be called once, before anything else.
+     *
+     * @param checkpoint LSN up to which records were applied elsewhere; they are not returned
+     *                   and numbering continues after it even when their segments are gone
+     * @return the valid records after the checkpoint, in LSN order
+     */
+    public synchronized List<WalRecord> recover(long checkpoint) {
+        final List<WalRecord> records = new ArrayList<>();
+        long lastLsn = checkpoint;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                        .forEach(file -> segments.put(firstLsn(file), file));
+            }
+            long expectedLsn = -1;
+            boolean ended = false;
+            for (Iterator<Map.Entry<Long, Path>> iterator = segments.entrySet().iterator(); iterator.hasNext(); ) {
+                final Map.Entry<Long, Path> entry = iterator.next();
+                // a segment continues the log only if it starts right after the last valid record, which a
+                // partly filled one left behind by a restart does; past a gap nothing is in order any more
+                ended |= expectedLsn >= 0 && entry.getKey() != expectedLsn;
+                if (ended) {
+                    log.warn("Deleting write-ahead log segment {} after the end of the log", entry.getValue());
+                    Files.delete(entry.getValue());
+                    iterator.remove();
+                    continue;
+                }
+                if (expectedLsn < 0) {
+                    expectedLsn = entry.getKey();
+                }
+                final List<WalRecord> segmentRecords = read(entry.getValue(), expectedLsn);
+                for (WalRecord record : segmentRecords) {
+                    lastLsn = Math.max(lastLsn, record.lsn());
+                    if (record.lsn() > checkpoint) {
+                        records.add(record);
+                    }
+                }
+                expectedLsn += segmentRecords.size();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        nextLsn = lastLsn + 1;
+        durableLsn = lastLsn;
+        openSegment();
+        return records;
+    }
+
+    /**
+     * Copies the record into the current segment, it is durable only after {@link #sync}.
+     *
+     * @return the LSN of the record
+     */
+    public synchronized long append(UUID accountId, OperationType type, long amount, long balance) {
+        if (segment.remaining() < RECORD_SIZE) {
+            segment.force();
+            openSegment();
+        }
+        final long lsn = nextLsn++;
+        final int position = segment.position();
+        segment.position(position + 4);
+        segment.putLong(lsn)
+                .putLong(accountId.getMostSignificantBits())
+                .putLong(accountId.getLeastSignificantBits())
+                .put((byte) type.ordinal())
+                .putLong(amount)
+                .putLong(balance);
+        // the checksum goes in last, a record torn anywhere fails it
+        segment.putInt(position, checksum(segment, position + 4));
+        unflushed.add(new WalRecord(lsn, accountId, type, amount, balance));
+        return lsn;
+    }
+
+    /**
+     * Returns once every record up to {@code lsn} is on disk.
+     */
+    public void sync(long lsn) {
+        if (durableLsn >= lsn) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableLsn >= lsn) {
+                return;
+            }
+            final long target;
+            final MappedByteBuffer buffer;
+            synchronized (this) {
+                target = nextLsn - 1;
+                buffer = segment;
+            }
+            // earlier segments were forced when they filled up
+            buffer.force();
+            durableLsn = target;
+        }
+    }
+
+    public long durableLsn() {
+        return durableLsn;
+    }
+
+    public synchronized long lastLsn() {
+        return nextLsn - 1;
+    }
+
+    /**
+     * Hands out durable records for applying elsewhere, oldest first; each record is handed out once.
+     */
+    public synchronized List<WalRecord> takeDurable(int max) {
+        final List<WalRecord> records = new ArrayList<>(Math.min(max, unflushed.size()));
+        while (records.size() < max && !unflushed.isEmpty() && unflushed.peekFirst().lsn() <= durableLsn) {
+            records.add(unflushed.pollFirst());
+        }
+        return records;
+    }
+
+    public synchronized int unflushedCount() {
+        return unflushed.size();
+    }
+
+    /**
+     * Deletes the segments whose records are all at or below {@code checkpoint}. The current segment stays.
+     */
+    public synchronized void truncate(long checkpoint) {
+        while (segments.size() > 1) {
+            final Map.Entry<Long, Path> oldest = segments.firstEntry();
+            final Long next = segments.higherKey(oldest.getKey());
+            if (next - 1 > checkpoint) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(oldest.getValue());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            segments.remove(oldest.getKey());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        segment.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        channel = null;
+    }
+
+    private void openSegment() {
+        final Path file = directory.resolve(String.format("%020d%s", nextLsn, SUFFIX));
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            // a leftover file of that name holds no valid record, start from zeros
+            Files.deleteIfExists(file);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            syncDirectory();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.put(nextLsn, file);
+    }
+
+    /**
+     * Makes the new file name itself durable, otherwise a power loss could drop the whole segment.
+     */
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // not supported on every platform, the data itself is still forced
+        }
+    }
+
+    private List<WalRecord> read(Path file, long firstLsn) throws IOException {
+        final List<WalRecord> records = new ArrayList<>();
+        try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            long expectedLsn = firstLsn;
+            for (int position = 0; position + RECORD_SIZE <= buffer.limit(); position += RECORD_SIZE) {
+                if (buffer.getInt(position) != checksum(buffer, position + 4)
+                        || buffer.getLong(position + 4) != expectedLsn) {
+                    break;
+                }
+                records.add(new WalRecord(
+                        expectedLsn++,
+                        new UUID(buffer.getLong(position + 12), buffer.getLong(position + 20)),
+                        TYPES[buffer.get(position + 28)],
+                        buffer.getLong(position + 29),
+                        buffer.getLong(position + 37)));
+            }
+        }
+        return records;
+    }
+
+    private int checksum(ByteBuffer buffer, int offset) {
+        crc.reset();
+        crc.update(buffer.slice(offset, PAYLOAD_SIZE));
+        return (int) crc.getValue();
+    }
+
+    private static long firstLsn(Path file) {
+        final String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
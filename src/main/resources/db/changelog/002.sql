@@ -0,0 +1,8 @@
+alter table "account" add column stripe_count integer not null default 0;
+
+create table account_stripe (
+    account_id uuid not null references "account" (id),
+    stripe integer not null,
+    balance double precision not null,
+    primary key (account_id, stripe)
+);
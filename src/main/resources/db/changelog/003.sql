@@ -0,0 +1,11 @@
+-- no foreign key to account: in PostgreSQL the key check would lock the account row on every insert
+create table operation_journal (
+    seq bigint generated by default as identity primary key,
+    account_id uuid not null,
+    type varchar(16) not null,
+    amount double precision not null,
+    compacted boolean not null default false,
+    created_at timestamp not null default current_timestamp
+);
+
+create index operation_journal_account_idx on operation_journal (account_id, compacted);
@@ -0,0 +1,10 @@
+create table idempotency_key (
+    idempotency_key varchar(128) primary key,
+    account_id uuid not null,
+    type varchar(16) not null,
+    amount double precision not null,
+    response varchar(4096),
+    created_at timestamp not null default current_timestamp
+);
+
+create index idempotency_key_created_at_idx on idempotency_key (created_at);
@@ -0,0 +1 @@
+alter table idempotency_key add column target_account_id uuid;
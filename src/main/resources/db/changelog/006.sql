@@ -0,0 +1,20 @@
+-- money as bigint minor units (2 decimal places), see org.example.bank.model.Money
+alter table "account" add column balance_minor bigint not null default 0;
+update "account" set balance_minor = round(coalesce(balance, 0) * 100);
+alter table "account" drop column balance;
+alter table "account" rename column balance_minor to balance;
+
+alter table account_stripe add column balance_minor bigint not null default 0;
+update account_stripe set balance_minor = round(balance * 100);
+alter table account_stripe drop column balance;
+alter table account_stripe rename column balance_minor to balance;
+
+alter table operation_journal add column amount_minor bigint not null default 0;
+update operation_journal set amount_minor = round(amount * 100);
+alter table operation_journal drop column amount;
+alter table operation_journal rename column amount_minor to amount;
+
+alter table idempotency_key add column amount_minor bigint not null default 0;
+update idempotency_key set amount_minor = round(amount * 100);
+alter table idempotency_key drop column amount;
+alter table idempotency_key rename column amount_minor to amount;
@@ -0,0 +1,2 @@
+-- optimistic concurrency, see org.example.bank.service.engine.AdaptiveOperationEngine
+alter table "account" add column version bigint not null default 0;
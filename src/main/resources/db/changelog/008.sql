@@ -0,0 +1,14 @@
+-- hash ranges of account ids leased to instances, see org.example.bank.ownership.OwnershipLeases
+-- expires_at is epoch millis of the owner's clock
+create table ownership_lease (
+    range_id integer primary key,
+    owner varchar(64),
+    owner_url varchar(255),
+    expires_at bigint not null default 0
+);
+
+-- heartbeat of every running instance, also of those holding no lease yet
+create table ownership_member (
+    instance_id varchar(64) primary key,
+    expires_at bigint not null
+);
@@ -0,0 +1,14 @@
+-- applied operations with the balance right after them, see org.example.bank.service.HistoryService
+create table operation_history (
+    seq bigint generated by default as identity primary key,
+    account_id uuid not null,
+    type varchar(16) not null,
+    amount bigint not null,
+    balance bigint not null,
+    counterparty_id uuid,
+    created_at timestamp not null default current_timestamp
+);
+
+-- covers the keyset reads: every selected column is in the index, the table is never visited
+create index operation_history_account_idx
+    on operation_history (account_id, seq, type, amount, balance, counterparty_id, created_at);
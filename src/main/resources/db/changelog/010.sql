@@ -0,0 +1,22 @@
+-- bulk balance jobs, see org.example.bank.service.job.BalanceJobService
+create table balance_job (
+    id varchar(64) primary key,
+    type varchar(16) not null,
+    parameter bigint not null,
+    status varchar(16) not null,
+    chunk_count integer,
+    error varchar(1024),
+    created_at timestamp not null default current_timestamp,
+    finished_at timestamp
+);
+
+-- keyset ranges (from_id, to_id] of a job, done is set in the transaction that wrote the range
+create table balance_job_chunk (
+    job_id varchar(64) not null,
+    chunk_no integer not null,
+    from_id uuid,
+    to_id uuid not null,
+    done boolean not null default false,
+    accounts integer not null default 0,
+    primary key (job_id, chunk_no)
+);
@@ -0,0 +1,6 @@
+-- write-behind mode: last log sequence number of each instance's write-ahead log applied to account,
+-- see org.example.bank.service.engine.WriteBehindOperationEngine
+create table wal_checkpoint (
+    node_id varchar(64) primary key,
+    lsn bigint not null
+);
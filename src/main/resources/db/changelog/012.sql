@@ -0,0 +1,6 @@
+-- the journal only holds the tail: the compactor deletes folded rows in bulk instead of flagging each one,
+-- operation_history keeps the record of every operation
+delete from operation_journal where compacted = true;
+drop index operation_journal_account_idx;
+alter table operation_journal drop column compacted;
+create index operation_journal_account_idx on operation_journal (account_id, seq);
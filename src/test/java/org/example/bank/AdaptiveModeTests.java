@@ -0,0 +1,131 @@
+package org.example.bank;
+
+import org.example.bank.model.Account;
+import org.example.bank.model.AccountView;
+import org.example.bank.model.Operation;
+import org.example.bank.repository.AccountRepository;
+import org.example.bank.service.AccountService;
+import org.example.bank.service.IdempotencyService;
+import org.example.bank.service.engine.AdaptiveOperationEngine;
+import org.example.bank.service.engine.ConflictTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the whole consistency suite with optimistic writes that fall back to row locks on contended accounts.
+ * A high smoothing factor lets a single conflict switch an account.
+ */
+@SpringBootTest(properties = {
+        "bank.operation.mode=adaptive",
+        "bank.operation.adaptive.smoothing=0.5",
+        "bank.operation.adaptive.contended-lock-wait=1s"})
+class AdaptiveModeTests extends TestBankAccountApplicationTests {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AdaptiveOperationEngine engine;
+
+    @Autowired
+    private AccountRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    /**
+     * Another writer holds the row lock and changes the balance while an optimistic write is in flight.
+     * The write conflicts, is retried, and the account is switched to the row lock until it calms down.
+     */
+    @Test
+    void testConflictSwitchesAccountToPessimistic() throws InterruptedException {
+        final UUID accountId = accountService.create().getId();
+        final CountDownLatch locked = new CountDownLatch(1);
+        final Thread writer = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            final Account account = repository.findByIdAndLock(accountId).orElseThrow();
+            account.setBalance(account.getBalance() + 100);
+            repository.saveAndFlush(account);
+            locked.countDown();
+            sleep(200);
+        }));
+        writer.start();
+        locked.await();
+
+        assertEquals(200, accountService.makeOperation(new Operation(accountId, DEPOSIT, 100)).balance());
+        writer.join();
+        assertTrue(engine.isPessimistic(accountId));
+
+        // uncontended lock waits bring the rate down again
+        for (int i = 0; i < 4; i++) {
+            accountService.makeOperation(new Operation(accountId, DEPOSIT, 100));
+        }
+        assertFalse(engine.isPessimistic(accountId));
+        assertEquals(600, accountService.getById(accountId).balance());
+    }
+
+    /**
+     * The same conflict inside an idempotent request's transaction: the operation waits for the row lock
+     * instead of failing an optimistic write, which would leave the transaction rollback-only.
+     */
+    @Test
+    void testContendedKeyedOperation() throws InterruptedException {
+        final UUID accountId = accountService.create().getId();
+        final CountDownLatch locked = new CountDownLatch(1);
+        final Thread writer = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            final Account account = repository.findByIdAndLock(accountId).orElseThrow();
+            account.setBalance(account.getBalance() + 100);
+            repository.saveAndFlush(account);
+            locked.countDown();
+            sleep(200);
+        }));
+        writer.start();
+        locked.await();
+
+        final Operation operation = new Operation(accountId, DEPOSIT, 100);
+        final AccountView result = idempotencyService.execute(UUID.randomUUID().toString(), operation,
+                () -> accountService.makeOperation(operation));
+        writer.join();
+
+        assertEquals(200, result.balance());
+        assertEquals(200, accountService.getById(accountId).balance());
+    }
+
+    @Test
+    void testTrackerSwitchesWithHysteresis() {
+        final ConflictTracker tracker = new ConflictTracker(16, Duration.ofMinutes(1), 0.5, 0.6, 0.2);
+        final UUID accountId = UUID.randomUUID();
+
+        assertFalse(tracker.record(accountId, false));
+        assertEquals(0, tracker.size());
+        assertFalse(tracker.record(accountId, true));
+        assertTrue(tracker.record(accountId, true));
+        assertTrue(tracker.isContended(accountId));
+        // 0.375 is between the thresholds, the account stays contended
+        assertFalse(tracker.record(accountId, false));
+        assertTrue(tracker.isContended(accountId));
+        assertTrue(tracker.record(accountId, false));
+        assertFalse(tracker.isContended(accountId));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
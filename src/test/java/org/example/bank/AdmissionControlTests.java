@@ -0,0 +1,113 @@
+package org.example.bank;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.bank.model.Account;
+import org.example.bank.model.exception.OverloadedException;
+import org.example.bank.service.AccountService;
+import org.example.bank.service.AdmissionControl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "bank.admission.max-in-flight=1",
+        "bank.admission.max-queued=0",
+        "bank.admission.max-per-account=1",
+        "bank.admission.retry-after=2s"
+})
+@AutoConfigureMockMvc
+class AdmissionControlTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testOverloadIsShedWithRetryAfter() throws Exception {
+        final Account createdAccount = accountService.create();
+
+        final CountDownLatch admitted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<Void> holder = hold(null, admitted, release);
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+
+        try {
+            mockMvc.perform(post("/api/v1/wallet")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(deposit(createdAccount.getId())))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+
+        mockMvc.perform(post("/api/v1/wallet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(deposit(createdAccount.getId())))
+                .andExpect(status().isOk());
+        assertEquals(100, accountService.getById(createdAccount.getId()).balance());
+        assertTrue(meterRegistry.get("bank.admission.shed").tag("reason", "global").counter().count() > 0);
+    }
+
+    @Test
+    void testHotAccountIsShed() throws Exception {
+        final UUID hotId = UUID.randomUUID();
+
+        final CountDownLatch admitted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<Void> holder = hold(hotId, admitted, release);
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+
+        try {
+            assertThrows(OverloadedException.class, () -> admissionControl.execute(hotId, () -> null));
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+
+        admissionControl.execute(hotId, () -> null);
+        assertTrue(meterRegistry.get("bank.admission.shed").tag("reason", "account").counter().count() > 0);
+        assertEquals(0.0, meterRegistry.get("bank.admission.accounts").gauge().value());
+    }
+
+    private CompletableFuture<Void> hold(UUID accountId, CountDownLatch admitted, CountDownLatch release) {
+        return CompletableFuture.runAsync(() -> admissionControl.execute(accountId, () -> {
+            admitted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+    }
+
+    private static String deposit(UUID accountId) {
+        return "{\"accountId\":\"" + accountId + "\",\"type\":\"DEPOSIT\",\"amount\":1.0}";
+    }
+}
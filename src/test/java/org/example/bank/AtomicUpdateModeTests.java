@@ -0,0 +1,10 @@
+package org.example.bank;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the whole consistency suite with guarded UPDATE statements instead of SELECT ... FOR UPDATE.
+ */
+@SpringBootTest(properties = "bank.operation.mode=atomic-update")
+class AtomicUpdateModeTests extends TestBankAccountApplicationTests {
+}
@@ -0,0 +1,107 @@
+package org.example.bank;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.bank.cache.InvalidationBus;
+import org.example.bank.model.AccountView;
+import org.example.bank.model.Operation;
+import org.example.bank.service.AccountService;
+import org.example.bank.service.IdempotencyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BalanceCacheTests {
+    private static final Duration MAX_STALENESS = Duration.ofMinutes(1);
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Test
+    void testCachedReadIsServedFromCache() {
+        final UUID accountId = accountService.create().getId();
+        final double hitsBefore = hits();
+
+        final AccountView firstRead = accountService.getById(accountId, MAX_STALENESS);
+        final AccountView secondRead = accountService.getById(accountId, MAX_STALENESS);
+
+        assertSame(firstRead, secondRead);
+        assertEquals(hitsBefore + 1, hits());
+    }
+
+    @Test
+    void testOperationInvalidatesCachedBalance() {
+        final UUID accountId = accountService.create().getId();
+        accountService.getById(accountId, MAX_STALENESS);
+
+        accountService.makeOperation(new Operation(accountId, DEPOSIT, 2050));
+
+        assertEquals(2050, accountService.getById(accountId, MAX_STALENESS).balance());
+    }
+
+    /**
+     * A keyed operation commits with the idempotency key. A read from another thread before that commit
+     * caches the old balance, which the commit has to drop.
+     */
+    @Test
+    void testKeyedOperationInvalidatesAfterCommit() {
+        final UUID accountId = accountService.create().getId();
+        final Operation operation = new Operation(accountId, DEPOSIT, 2050);
+
+        idempotencyService.execute(UUID.randomUUID().toString(), operation, () -> {
+            final AccountView result = accountService.makeOperation(operation);
+            CompletableFuture.supplyAsync(() -> accountService.getById(accountId, MAX_STALENESS)).join();
+            return result;
+        });
+
+        assertEquals(2050, accountService.getById(accountId, MAX_STALENESS).balance());
+    }
+
+    /**
+     * An invalidation published by another instance drops the local entry as well.
+     */
+    @Test
+    void testBusInvalidationDropsCachedBalance() {
+        final UUID accountId = accountService.create().getId();
+        final AccountView cached = accountService.getById(accountId, MAX_STALENESS);
+
+        invalidationBus.publish(accountId);
+
+        assertNotSame(cached, accountService.getById(accountId, MAX_STALENESS));
+        assertTrue(meterRegistry.get("bank.balance.cache.invalidation.lag").timer().count() > 0);
+    }
+
+    @Test
+    void testFreshReadBypassesCache() {
+        final UUID accountId = accountService.create().getId();
+        final AccountView cached = accountService.getById(accountId, MAX_STALENESS);
+
+        final AccountView fresh = accountService.getById(accountId, Duration.ZERO);
+
+        assertNotSame(cached, fresh);
+        assertEquals(cached.balance(), fresh.balance());
+    }
+
+    private double hits() {
+        return meterRegistry.get("bank.balance.cache.requests").tag("result", "hit").counter().count();
+    }
+}
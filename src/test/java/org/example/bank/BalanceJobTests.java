@@ -0,0 +1,174 @@
+package org.example.bank;
+
+import org.example.bank.model.BalanceJob;
+import org.example.bank.model.BalanceJobRequest;
+import org.example.bank.model.BalanceJobType;
+import org.example.bank.model.Operation;
+import org.example.bank.model.exception.JobParameterException;
+import org.example.bank.service.AccountService;
+import org.example.bank.service.job.BalanceJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "bank.job.chunk-size=4",
+        "bank.job.parallelism=3"})
+@AutoConfigureMockMvc
+class BalanceJobTests {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceJobService balanceJobService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testInterestVisitsEveryAccountOnce() throws InterruptedException {
+        final List<UUID> ids = createAccounts(10, 100000);
+        final Map<UUID, Long> before = balances();
+
+        balanceJobService.create(new BalanceJobRequest("interest-once", BalanceJobType.INTEREST, null, 150));
+        balanceJobService.run("interest-once");
+
+        final BalanceJob job = balanceJobService.get("interest-once");
+        assertEquals(BalanceJob.Status.DONE, job.status());
+        assertEquals(job.chunks(), job.doneChunks());
+        before.forEach((id, balance) -> assertEquals(balance + BalanceJobType.INTEREST.delta(balance, 150),
+                accountService.getById(id).balance()));
+        assertEquals(101500, accountService.getById(ids.get(0)).balance());
+    }
+
+    /**
+     * A crash after the first range committed: its checkpoint is there, the rest of the plan is not.
+     * The resumed run plans the remainder and leaves the committed range alone.
+     */
+    @Test
+    void testResumeSkipsCommittedChunks() throws InterruptedException {
+        createAccounts(10, 5000);
+        final Map<UUID, Long> before = balances();
+        final List<UUID> order = jdbcTemplate.queryForList("select id from account order by id", UUID.class);
+        final UUID committedTo = order.get(3);
+
+        balanceJobService.create(new BalanceJobRequest("fee-resumed", BalanceJobType.FEE, 1000L, null));
+        jdbcTemplate.update("insert into balance_job_chunk (job_id, chunk_no, from_id, to_id, done) " +
+                "values ('fee-resumed', 0, null, ?, true)", committedTo);
+        balanceJobService.run("fee-resumed");
+
+        for (int i = 0; i < order.size(); i++) {
+            final UUID id = order.get(i);
+            final long expected = i <= 3
+                    ? before.get(id)
+                    : before.get(id) + BalanceJobType.FEE.delta(before.get(id), 1000);
+            assertEquals(expected, accountService.getById(id).balance());
+        }
+        assertEquals(BalanceJob.Status.DONE, balanceJobService.get("fee-resumed").status());
+    }
+
+    /**
+     * Deposits keep coming while the job charges a fee; none of the two may overwrite the other.
+     */
+    @Test
+    void testConcurrentOperationsAreNotLost() throws InterruptedException {
+        final List<UUID> ids = createAccounts(12, 100000);
+        final Map<UUID, Long> before = balances();
+
+        final List<Throwable> errors = new ArrayList<>();
+        final Thread depositor = new Thread(() -> {
+            try {
+                for (int i = 0; i < 50; i++) {
+                    for (UUID id : ids) {
+                        accountService.makeOperation(new Operation(id, DEPOSIT, 10));
+                    }
+                }
+            } catch (Throwable e) {
+                errors.add(e);
+            }
+        });
+        depositor.start();
+        balanceJobService.create(new BalanceJobRequest("fee-concurrent", BalanceJobType.FEE, 100L, null));
+        balanceJobService.run("fee-concurrent");
+        depositor.join();
+
+        assertTrue(errors.isEmpty(), () -> errors.toString());
+        for (UUID id : ids) {
+            assertEquals(before.get(id) + 50 * 10 - 100, accountService.getById(id).balance());
+        }
+    }
+
+    @Test
+    void testFailWhenRequestInvalid() {
+        assertThrows(JobParameterException.class, () -> balanceJobService.create(
+                new BalanceJobRequest("interest-invalid", BalanceJobType.INTEREST, null, 0)));
+        assertThrows(JobParameterException.class, () -> balanceJobService.create(
+                new BalanceJobRequest("", BalanceJobType.FEE, 100L, null)));
+
+        balanceJobService.create(new BalanceJobRequest("fee-reused", BalanceJobType.FEE, 100L, null));
+        assertThrows(JobParameterException.class, () -> balanceJobService.create(
+                new BalanceJobRequest("fee-reused", BalanceJobType.FEE, 200L, null)));
+    }
+
+    @Test
+    void testJobEndpoints() throws Exception {
+        createAccounts(3, 1000);
+
+        mockMvc.perform(post("/api/v1/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":\"fee-http\",\"type\":\"FEE\",\"amount\":0.5}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("fee-http"))
+                .andExpect(jsonPath("$.parameter").value(50));
+
+        for (int i = 0; i < 100 && balanceJobService.get("fee-http").status() != BalanceJob.Status.DONE; i++) {
+            Thread.sleep(50);
+        }
+        mockMvc.perform(get("/api/v1/jobs/fee-http"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DONE"));
+        mockMvc.perform(get("/api/v1/jobs/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    private List<UUID> createAccounts(int count, long balance) {
+        final List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final UUID id = accountService.create().getId();
+            accountService.makeOperation(new Operation(id, DEPOSIT, balance));
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private Map<UUID, Long> balances() {
+        final Map<UUID, Long> balances = new HashMap<>();
+        // through the service, the row alone can lag behind the engine
+        jdbcTemplate.queryForList("select id from account", UUID.class)
+                .forEach(id -> balances.put(id, accountService.getById(id).balance()));
+        return balances;
+    }
+}
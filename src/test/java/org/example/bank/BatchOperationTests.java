@@ -0,0 +1,159 @@
+package org.example.bank;
+
+import org.example.bank.model.BatchItemResult;
+import org.example.bank.model.BatchResult;
+import org.example.bank.model.Operation;
+import org.example.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.example.bank.model.BatchItemResult.Status.APPLIED;
+import static org.example.bank.model.BatchItemResult.Status.NOT_FOUND;
+import static org.example.bank.model.BatchItemResult.Status.REJECTED;
+import static org.example.bank.model.BatchItemResult.Status.ROLLED_BACK;
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.example.bank.model.OperationType.TRANSFER;
+import static org.example.bank.model.OperationType.WITHDRAW;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchOperationTests {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testBestEffortSkipsInvalidItems() {
+        final UUID first = accountService.create().getId();
+        final UUID second = accountService.create().getId();
+
+        final BatchResult result = accountService.makeOperations(List.of(
+                new Operation(first, DEPOSIT, 1000),
+                new Operation(second, WITHDRAW, 500),
+                new Operation(second, DEPOSIT, 750),
+                new Operation(first, WITHDRAW, 250),
+                new Operation(UUID.randomUUID(), DEPOSIT, 100)
+        ), false);
+
+        assertTrue(result.getCommitted());
+        assertEquals(List.of(APPLIED, REJECTED, APPLIED, APPLIED, NOT_FOUND), statuses(result));
+        assertEquals(750, result.getItems().get(3).getBalance());
+        assertEquals(750, accountService.getById(first).balance());
+        assertEquals(750, accountService.getById(second).balance());
+    }
+
+    @Test
+    void testAllOrNothingRollsBackOnFailure() {
+        final UUID first = accountService.create().getId();
+        final UUID second = accountService.create().getId();
+
+        final BatchResult result = accountService.makeOperations(List.of(
+                new Operation(first, DEPOSIT, 1000),
+                new Operation(second, WITHDRAW, 500)
+        ), true);
+
+        assertFalse(result.getCommitted());
+        assertEquals(List.of(ROLLED_BACK, REJECTED), statuses(result));
+        assertEquals(0, accountService.getById(first).balance());
+    }
+
+    @Test
+    void testTransferInBatchMovesMoney() {
+        final UUID source = accountService.create().getId();
+        final UUID target = accountService.create().getId();
+
+        final BatchResult result = accountService.makeOperations(List.of(
+                new Operation(source, DEPOSIT, 1000),
+                new Operation(source, TRANSFER, 400, target),
+                new Operation(target, WITHDRAW, 400)
+        ), true);
+
+        assertTrue(result.getCommitted());
+        assertEquals(600, accountService.getById(source).balance());
+        assertEquals(0, accountService.getById(target).balance());
+    }
+
+    @Test
+    void testNdjsonBatch() throws Exception {
+        final UUID accountId = accountService.create().getId();
+        final String body = """
+                {"accountId":"%1$s","type":"DEPOSIT","amount":20.5}
+                {"accountId":"%1$s","type":"WITHDRAW","amount":0.5}
+                """.formatted(accountId);
+
+        mockMvc.perform(post("/api/v1/wallet/batch?atomic=true")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.committed").value(true))
+                .andExpect(jsonPath("$.items[1].balance").value(20.0));
+
+        assertEquals(2000, accountService.getById(accountId).balance());
+    }
+
+    /**
+     * Two threads repeatedly move money over the same three accounts, listing them in opposite order.
+     * Lock ordering must keep them from deadlocking and no money may be lost.
+     */
+    @Test
+    void testConcurrentBatchesInOppositeOrder() throws InterruptedException {
+        final List<UUID> ids = List.of(
+                accountService.create().getId(),
+                accountService.create().getId(),
+                accountService.create().getId());
+        ids.forEach(id -> accountService.makeOperation(new Operation(id, DEPOSIT, 100000)));
+
+        final List<Throwable> errors = new ArrayList<>();
+        final Thread forward = new Thread(() -> shuffle(ids, errors));
+        final Thread backward = new Thread(() -> shuffle(List.of(ids.get(2), ids.get(1), ids.get(0)), errors));
+        forward.start();
+        backward.start();
+        forward.join();
+        backward.join();
+
+        assertTrue(errors.isEmpty(), () -> errors.toString());
+        final long total = ids.stream()
+                .mapToLong(id -> accountService.getById(id).balance())
+                .sum();
+        assertEquals(300000, total);
+    }
+
+    private void shuffle(List<UUID> ids, List<Throwable> errors) {
+        try {
+            for (int i = 0; i < 200; i++) {
+                final BatchResult result = accountService.makeOperations(List.of(
+                        new Operation(ids.get(0), WITHDRAW, 100),
+                        new Operation(ids.get(1), DEPOSIT, 50),
+                        new Operation(ids.get(2), DEPOSIT, 50)
+                ), true);
+                assertTrue(result.getCommitted());
+            }
+        } catch (Throwable e) {
+            synchronized (errors) {
+                errors.add(e);
+            }
+        }
+    }
+
+    private static List<BatchItemResult.Status> statuses(BatchResult result) {
+        return result.getItems().stream()
+                .map(BatchItemResult::getStatus)
+                .toList();
+    }
+}
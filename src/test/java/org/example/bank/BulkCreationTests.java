@@ -0,0 +1,77 @@
+package org.example.bank;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.bank.model.Account;
+import org.example.bank.model.TimeOrderedUuid;
+import org.example.bank.service.AccountLockOrder;
+import org.example.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "bank.account.bulk.chunk-size=100")
+@AutoConfigureMockMvc
+class BulkCreationTests {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testIdsAreVersion7AndIncreasing() {
+        UUID previous = TimeOrderedUuid.next();
+        for (int i = 0; i < 10000; i++) {
+            final UUID next = TimeOrderedUuid.next();
+            assertEquals(7, next.version());
+            assertEquals(2, next.variant());
+            assertTrue(AccountLockOrder.COMPARATOR.compare(previous, next) < 0, next::toString);
+            previous = next;
+        }
+        assertEquals(7, accountService.create().getId().version());
+    }
+
+    @Test
+    void testBulkCreateStreamsEveryWallet() throws Exception {
+        final MvcResult result = mockMvc.perform(post("/api/v1/wallet/create/bulk").param("count", "250"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        final List<UUID> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            ids.add(objectMapper.readValue(line, Account.class).getId());
+        }
+        assertEquals(250, ids.size());
+        assertEquals(250, ids.stream().distinct().count());
+        ids.forEach(id -> assertEquals(0, accountService.getById(id).balance()));
+    }
+
+    @Test
+    void testBulkCountOutOfRangeIsRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/wallet/create/bulk").param("count", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/wallet/create/bulk").param("count", "100001"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.bank;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Keyed operations must not be queued into a batch that commits with, or without, the caller's key claim.
+ */
+@SpringBootTest(properties = "bank.operation.mode=group-commit")
+class GroupCommitIdempotencyTests extends IdempotencyTests {
+}
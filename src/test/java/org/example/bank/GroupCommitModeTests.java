@@ -0,0 +1,10 @@
+package org.example.bank;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the whole consistency suite with operations grouped into shared transactions.
+ */
+@SpringBootTest(properties = "bank.operation.mode=group-commit")
+class GroupCommitModeTests extends TestBankAccountApplicationTests {
+}
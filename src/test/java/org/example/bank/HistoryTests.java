@@ -0,0 +1,168 @@
+package org.example.bank;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.bank.config.HistoryProperties;
+import org.example.bank.model.HistoryEntry;
+import org.example.bank.model.HistoryPage;
+import org.example.bank.model.Operation;
+import org.example.bank.repository.OperationHistoryRepository;
+import org.example.bank.service.AccountService;
+import org.example.bank.service.HistoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.example.bank.model.OperationType.TRANSFER;
+import static org.example.bank.model.OperationType.WITHDRAW;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class HistoryTests {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Autowired
+    private OperationHistoryRepository historyRepository;
+
+    @Autowired
+    private HistoryProperties historyProperties;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testPagesFollowTheCursor() {
+        final UUID accountId = accountService.create().getId();
+        for (int i = 1; i <= 5; i++) {
+            accountService.makeOperation(new Operation(accountId, DEPOSIT, i * 100));
+        }
+        // rejected, must not show up
+        accountService.tryOperation(new Operation(accountId, WITHDRAW, 100000));
+
+        final List<Long> balances = new ArrayList<>();
+        Long before = null;
+        do {
+            final HistoryPage page = historyService.getHistory(accountId, before, 2);
+            page.items().forEach(entry -> balances.add(entry.balance()));
+            before = page.next();
+        } while (before != null);
+
+        assertEquals(List.of(1500L, 1000L, 600L, 300L, 100L), balances);
+    }
+
+    @Test
+    void testTransferIsRecordedOnBothSides() throws Exception {
+        final UUID source = accountService.create().getId();
+        final UUID target = accountService.create().getId();
+        accountService.makeOperation(new Operation(source, DEPOSIT, 1000));
+        accountService.makeOperation(new Operation(source, TRANSFER, 400, target));
+
+        final HistoryEntry debit = historyService.getHistory(source, null, 1).items().get(0);
+        assertEquals(TRANSFER, debit.type());
+        assertEquals(-400, debit.amount());
+        assertEquals(600, debit.balance());
+        assertEquals(target, debit.counterpartyId());
+
+        mockMvc.perform(get("/api/v1/wallet/{id}/operations", target))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].amount").value(4.0))
+                .andExpect(jsonPath("$.items[0].balance").value(4.0))
+                .andExpect(jsonPath("$.items[0].counterpartyId").value(source.toString()))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void testExportStreamsOldestFirst() throws Exception {
+        final UUID accountId = accountService.create().getId();
+        for (int i = 0; i < 30; i++) {
+            accountService.makeOperation(new Operation(accountId, DEPOSIT, 100));
+        }
+
+        final MvcResult result = mockMvc.perform(get("/api/v1/wallet/{id}/operations/export", accountId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        final String[] lines = body.split("\n");
+        assertEquals(30, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            final JsonNode entry = objectMapper.readTree(lines[i]);
+            assertEquals(i + 1.0, entry.get("balance").asDouble());
+        }
+    }
+
+    @Test
+    void testExportsHaveTheirOwnSlots() throws Exception {
+        final UUID accountId = accountService.create().getId();
+        final List<HistoryService.ExportSlot> slots = new ArrayList<>();
+        try {
+            for (int i = 0; i < historyProperties.getMaxConcurrentExports(); i++) {
+                slots.add(historyService.acquireExport());
+            }
+            mockMvc.perform(get("/api/v1/wallet/{id}/operations/export", accountId))
+                    .andExpect(status().isTooManyRequests());
+            // online requests are not affected
+            mockMvc.perform(get("/api/v1/wallet/{id}", accountId))
+                    .andExpect(status().isOk());
+        } finally {
+            slots.forEach(HistoryService.ExportSlot::close);
+        }
+
+        final MvcResult result = mockMvc.perform(get("/api/v1/wallet/{id}/operations/export", accountId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testExportStopsAtTheTimeout() {
+        final UUID accountId = accountService.create().getId();
+        accountService.makeOperation(new Operation(accountId, DEPOSIT, 100));
+
+        assertThrows(QueryTimeoutException.class,
+                () -> historyRepository.forEach(accountId, 10, Duration.ofNanos(1), entry -> { }));
+    }
+
+    @Test
+    void testBadRequests() throws Exception {
+        mockMvc.perform(get("/api/v1/wallet/{id}/operations", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/wallet/{id}/operations/export", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+
+        final UUID accountId = accountService.create().getId();
+        mockMvc.perform(get("/api/v1/wallet/{id}/operations", accountId).param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        assertNull(historyService.getHistory(accountId, null, null).next());
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.bank;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.bank.model.Account;
+import org.example.bank.model.Operation;
+import org.example.bank.model.exception.NotEnoughException;
+import org.example.bank.service.AccountService;
+import org.example.bank.service.IdempotencyService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.example.bank.model.OperationType.WITHDRAW;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotencyTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testRetryIsAppliedOnce() throws Exception {
+        final Account createdAccount = accountService.create();
+        final String key = UUID.randomUUID().toString();
+
+        deposit(createdAccount.getId(), 20.5, key)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(20.5));
+        deposit(createdAccount.getId(), 20.5, key)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(20.5));
+
+        assertEquals(2050, accountService.getById(createdAccount.getId()).balance());
+        assertTrue(meterRegistry.get("bank.idempotency.cache.requests").tag("result", "hit").counter().count() > 0);
+    }
+
+    @Test
+    void testDifferentKeysAreAppliedTwice() throws Exception {
+        final Account createdAccount = accountService.create();
+
+        deposit(createdAccount.getId(), 20.5, UUID.randomUUID().toString()).andExpect(status().isOk());
+        deposit(createdAccount.getId(), 20.5, UUID.randomUUID().toString()).andExpect(status().isOk());
+
+        assertEquals(4100, accountService.getById(createdAccount.getId()).balance());
+    }
+
+    @Test
+    void testFailReuseKeyForAnotherOperation() throws Exception {
+        final Account createdAccount = accountService.create();
+        final String key = UUID.randomUUID().toString();
+
+        deposit(createdAccount.getId(), 20.5, key).andExpect(status().isOk());
+        deposit(createdAccount.getId(), 1.0, key).andExpect(status().isBadRequest());
+
+        assertEquals(2050, accountService.getById(createdAccount.getId()).balance());
+    }
+
+    /**
+     * A rejected operation releases the key, so the client can retry it once the balance allows.
+     */
+    @Test
+    void testRejectedOperationIsNotRemembered() throws Exception {
+        final Account createdAccount = accountService.create();
+        final String key = UUID.randomUUID().toString();
+
+        withdraw(createdAccount.getId(), 5.0, key).andExpect(status().isBadRequest());
+        deposit(createdAccount.getId(), 10.0, UUID.randomUUID().toString()).andExpect(status().isOk());
+        withdraw(createdAccount.getId(), 5.0, key)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(5.0));
+    }
+
+    /**
+     * The operation is part of the key claim's transaction: when the claim rolls back, so does the operation.
+     */
+    @Test
+    void testOperationRollsBackWithTheClaim() {
+        final UUID accountId = accountService.create().getId();
+        final Operation operation = new Operation(accountId, DEPOSIT, 1000);
+
+        assertThrows(IllegalStateException.class,
+                () -> idempotencyService.execute(UUID.randomUUID().toString(), operation, () -> {
+                    accountService.makeOperation(operation);
+                    throw new IllegalStateException("after the operation");
+                }));
+
+        assertEquals(0, accountService.getById(accountId).balance());
+    }
+
+    /**
+     * Keyed deposits and rejected keyed withdrawals on one account at once, from more threads than the pool has
+     * connections: every request completes, and a rejection takes nobody else's acknowledged deposit with it.
+     */
+    @Test
+    @Timeout(60)
+    void testConcurrentKeyedOperations() throws InterruptedException {
+        final UUID accountId = accountService.create().getId();
+        final AtomicInteger deposited = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 25; j++) {
+                    final Operation deposit = new Operation(accountId, DEPOSIT, 100);
+                    final Operation withdraw = new Operation(accountId, WITHDRAW, 100_000_000);
+                    try {
+                        idempotencyService.execute(UUID.randomUUID().toString(), deposit,
+                                () -> accountService.makeOperation(deposit));
+                        deposited.incrementAndGet();
+                        idempotencyService.execute(UUID.randomUUID().toString(), withdraw,
+                                () -> accountService.makeOperation(withdraw));
+                    } catch (NotEnoughException e) {
+                        rejected.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, failed.get());
+        assertEquals(300, deposited.get());
+        assertEquals(300, rejected.get());
+        assertEquals(30000, accountService.getById(accountId).balance());
+    }
+
+    private ResultActions deposit(UUID accountId, Double amount, String key) throws Exception {
+        return operation(accountId, "DEPOSIT", amount, key);
+    }
+
+    private ResultActions withdraw(UUID accountId, Double amount, String key) throws Exception {
+        return operation(accountId, "WITHDRAW", amount, key);
+    }
+
+    private ResultActions operation(UUID accountId, String type, Double amount, String key) throws Exception {
+        return mockMvc.perform(post("/api/v1/wallet")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"accountId\":\"%s\",\"type\":\"%s\",\"amount\":%s}".formatted(accountId, type, amount)));
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.bank;
+
+import org.example.bank.model.Operation;
+import org.example.bank.service.AccountService;
+import org.example.bank.service.engine.JournalCompactor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.example.bank.model.OperationType.WITHDRAW;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the whole consistency suite against the operation journal, with the compactor folding it concurrently.
+ */
+@SpringBootTest(properties = {
+        "bank.operation.mode=journal",
+        "bank.operation.journal.compaction-interval=50"
+})
+class JournalModeTests extends TestBankAccountApplicationTests {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JournalCompactor compactor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testCompactionFoldsAndDeletesTheTail() {
+        final UUID accountId = accountService.create().getId();
+        for (int i = 0; i < 5; i++) {
+            accountService.makeOperation(new Operation(accountId, DEPOSIT, 300));
+        }
+        accountService.makeOperation(new Operation(accountId, WITHDRAW, 200));
+
+        compactor.compact();
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from operation_journal where account_id = ?", Integer.class, accountId));
+        assertEquals(1300, jdbcTemplate.queryForObject(
+                "select balance from account where id = ?", Long.class, accountId));
+        assertEquals(1300, accountService.getById(accountId).balance());
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.bank;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Reads in journal mode, where the un-compacted tails are added to the row and the stripes.
+ */
+@SpringBootTest(properties = {
+        "bank.operation.mode=journal",
+        "bank.operation.stripes.enabled=true",
+        "bank.account.query.max-ids=10",
+        "bank.account.query.chunk-size=3"})
+class JournalMultiGetTests extends MultiGetTests {
+}
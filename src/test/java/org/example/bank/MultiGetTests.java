@@ -0,0 +1,122 @@
+package org.example.bank;
+
+import org.example.bank.model.AccountQueryResult;
+import org.example.bank.model.AccountView;
+import org.example.bank.model.Operation;
+import org.example.bank.model.exception.QueryIdsException;
+import org.example.bank.service.AccountService;
+import org.example.bank.service.StripedAccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "bank.operation.stripes.enabled=true",
+        "bank.account.query.max-ids=10",
+        "bank.account.query.chunk-size=3"})
+@AutoConfigureMockMvc
+class MultiGetTests {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private StripedAccountService stripedAccountService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Seven ids with chunks of three, so the lookup spans three IN queries.
+     */
+    @Test
+    void testKeepsRequestOrderAcrossChunks() {
+        final List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final UUID id = accountService.create().getId();
+            accountService.makeOperation(new Operation(id, DEPOSIT, 100 * (i + 1)));
+            ids.add(id);
+        }
+        final UUID unknown = UUID.randomUUID();
+        ids.add(2, unknown);
+        ids.add(ids.get(0));
+        Collections.swap(ids, 0, 4);
+
+        final AccountQueryResult result = accountService.getByIds(ids);
+
+        final List<UUID> expectedOrder = ids.stream()
+                .filter(id -> !id.equals(unknown))
+                .distinct()
+                .toList();
+        assertEquals(expectedOrder, result.accounts().stream().map(AccountView::id).toList());
+        assertEquals(List.of(unknown), result.missing());
+        result.accounts().forEach(view ->
+                assertEquals(accountService.getById(view.id()).balance(), view.balance()));
+    }
+
+    @Test
+    void testIncludesStripes() {
+        final UUID accountId = accountService.create().getId();
+        accountService.makeOperation(new Operation(accountId, DEPOSIT, 10000));
+        stripedAccountService.stripe(accountId, 4);
+        accountService.makeOperation(new Operation(accountId, DEPOSIT, 500));
+
+        final AccountView view = accountService.getByIds(List.of(accountId)).accounts().get(0);
+
+        assertEquals(10500, view.balance());
+        assertEquals(4, view.stripeCount());
+        assertEquals(10500, accountService.getById(accountId).balance());
+    }
+
+    @Test
+    void testFailWhenTooManyIds() {
+        final List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            ids.add(UUID.randomUUID());
+        }
+
+        assertThrows(QueryIdsException.class, () -> accountService.getByIds(ids));
+        assertThrows(QueryIdsException.class, () -> accountService.getByIds(List.of()));
+    }
+
+    @Test
+    void testQueryEndpoints() throws Exception {
+        final UUID accountId = accountService.create().getId();
+        accountService.makeOperation(new Operation(accountId, DEPOSIT, 1250));
+        final UUID unknown = UUID.randomUUID();
+
+        mockMvc.perform(post("/api/v1/wallets/query")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"%s\",\"%s\"]".formatted(accountId, unknown)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts[0].id").value(accountId.toString()))
+                .andExpect(jsonPath("$.accounts[0].balance").value(12.5))
+                .andExpect(jsonPath("$.missing[0]").value(unknown.toString()));
+
+        mockMvc.perform(get("/api/v1/wallets")
+                        .param("id", unknown.toString())
+                        .param("id", accountId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts[0].balance").value(12.5))
+                .andExpect(jsonPath("$.missing[0]").value(unknown.toString()));
+
+        mockMvc.perform(get("/api/v1/wallets"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.bank;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.bank.metrics.SpaceSaving;
+import org.example.bank.model.Operation;
+import org.example.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "bank.metrics.hot-accounts.min-lock-wait=0s")
+@AutoConfigureMockMvc
+class OperationMetricsTests {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testPhasesAreTimed() {
+        final UUID accountId = accountService.create().getId();
+        accountService.makeOperation(new Operation(accountId, DEPOSIT, 100));
+
+        for (String phase : List.of("lock", "validate", "flush", "commit")) {
+            assertTrue(meterRegistry.get("bank.operation.phase").tag("phase", phase).timer().count() > 0, phase);
+        }
+        meterRegistry.get("bank.pool.saturation").gauge();
+    }
+
+    @Test
+    void testContendedAccountIsReported() throws Exception {
+        final UUID hotAccountId = accountService.create().getId();
+        final UUID coldAccountId = accountService.create().getId();
+        accountService.makeOperation(new Operation(coldAccountId, DEPOSIT, 100));
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 50; j++) {
+                    accountService.makeOperation(new Operation(hotAccountId, DEPOSIT, 100));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        mockMvc.perform(get("/actuator/hotaccounts").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts.length()").value(1))
+                .andExpect(jsonPath("$.accounts[0].key").value(hotAccountId.toString()));
+    }
+
+    @Test
+    void testFailHotAccountsWhenLimitNotPositive() throws Exception {
+        mockMvc.perform(get("/actuator/hotaccounts").param("limit", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/actuator/hotaccounts").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSketchKeepsHeavyHitterWithinCapacity() {
+        final SpaceSaving<Integer> sketch = new SpaceSaving<>(4);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add(7, 10);
+            sketch.add(i, 1);
+        }
+
+        final List<SpaceSaving.Entry<Integer>> top = sketch.top(10);
+        assertEquals(4, top.size());
+        assertEquals(7, top.get(0).key());
+        assertEquals(10001, top.get(0).count());
+        assertEquals(11000, sketch.total());
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.bank;
+
+import org.example.bank.config.OwnershipProperties;
+import org.example.bank.ownership.AffinityFilter;
+import org.example.bank.ownership.OwnershipLeases;
+import org.example.bank.repository.OwnershipLeaseRepository;
+import org.example.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClient;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The application context is one instance, a second one is built by hand over the same database
+ * and advertises the same server, so forwarded requests really go over HTTP. Renewals are driven by the test.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bank.ownership.enabled=true",
+        "bank.ownership.instance-id=first",
+        "bank.ownership.ranges=16",
+        "bank.ownership.lease-duration=2s",
+        "bank.ownership.renew-interval=3600000",
+        "bank.ownership.forward-timeout=500ms"})
+class OwnershipTests {
+
+    @Autowired
+    private OwnershipLeases leases;
+
+    @Autowired
+    private OwnershipLeaseRepository repository;
+
+    @Autowired
+    private AccountService accountService;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void testRangesAreSplitForwardedAndTakenOver() throws InterruptedException {
+        final OwnershipLeases second = second();
+        leases.renew();
+        assertEquals(16, leases.ownedRanges().size());
+
+        // the second instance sees a live peer, the first gives up its surplus, the second claims it
+        second.renew();
+        leases.renew();
+        second.renew();
+        leases.renew();
+        assertEquals(8, leases.ownedRanges().size());
+        assertEquals(8, second.ownedRanges().size());
+
+        final UUID remoteId = accountIn(second.ownedRanges());
+        final UUID localId = accountIn(leases.ownedRanges());
+        final RestClient client = RestClient.create(baseUrl());
+
+        final ResponseEntity<String> deposited = client.post()
+                .uri("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"accountId\":\"%s\",\"type\":\"DEPOSIT\",\"amount\":12.5}".formatted(remoteId))
+                .retrieve()
+                .toEntity(String.class);
+        assertEquals(baseUrl(), deposited.getHeaders().getFirst(AffinityFilter.OWNER));
+        assertTrue(deposited.getBody().contains("12.5"), deposited.getBody());
+        assertEquals(1250, accountService.getById(remoteId).balance());
+
+        final ResponseEntity<String> local = client.get()
+                .uri("/api/v1/wallet/{id}", localId)
+                .retrieve()
+                .toEntity(String.class);
+        assertNull(local.getHeaders().getFirst(AffinityFilter.OWNER));
+
+        // the second instance stops renewing, its leases expire and the first takes everything over
+        Thread.sleep(2100);
+        leases.renew();
+        assertEquals(16, leases.ownedRanges().size());
+        assertNull(leases.ownerUrl(remoteId));
+    }
+
+    /**
+     * The owner accepts the connection but never answers. An unkeyed deposit may have been applied there, so it gets
+     * a 504 instead of being applied again locally; a keyed one is safe to serve here.
+     */
+    @Test
+    void testUnansweredOperationIsNotServedLocally() throws Exception {
+        try (ServerSocket hung = new ServerSocket(0)) {
+            final OwnershipLeases peer = peer("hung", "http://localhost:" + hung.getLocalPort());
+            leases.renew();
+            peer.renew();
+            leases.renew();
+            peer.renew();
+            leases.renew();
+            final UUID remoteId = accountIn(peer.ownedRanges());
+            final RestClient client = RestClient.builder()
+                    .baseUrl(baseUrl())
+                    .defaultStatusHandler(status -> true, (request, response) -> {
+                    })
+                    .build();
+
+            final ResponseEntity<String> unkeyed = client.post()
+                    .uri("/api/v1/wallet")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body("{\"accountId\":\"%s\",\"type\":\"DEPOSIT\",\"amount\":12.5}".formatted(remoteId))
+                    .retrieve()
+                    .toEntity(String.class);
+            assertEquals(HttpStatus.GATEWAY_TIMEOUT, unkeyed.getStatusCode());
+            assertEquals(0, accountService.getById(remoteId).balance());
+
+            final ResponseEntity<String> keyed = client.post()
+                    .uri("/api/v1/wallet")
+                    .header("Idempotency-Key", UUID.randomUUID().toString())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body("{\"accountId\":\"%s\",\"type\":\"DEPOSIT\",\"amount\":12.5}".formatted(remoteId))
+                    .retrieve()
+                    .toEntity(String.class);
+            assertEquals(HttpStatus.OK, keyed.getStatusCode());
+            assertEquals(1250, accountService.getById(remoteId).balance());
+        }
+
+        // let the peer's leases expire for the other tests
+        Thread.sleep(2100);
+        leases.renew();
+        assertEquals(16, leases.ownedRanges().size());
+    }
+
+    private OwnershipLeases second() {
+        return peer("second", baseUrl());
+    }
+
+    private OwnershipLeases peer(String instanceId, String advertisedUrl) {
+        final OwnershipProperties properties = new OwnershipProperties();
+        properties.setInstanceId(instanceId);
+        properties.setAdvertisedUrl(advertisedUrl);
+        properties.setRanges(16);
+        properties.setLeaseDuration(Duration.ofSeconds(2));
+        return new OwnershipLeases(repository, properties);
+    }
+
+    private UUID accountIn(Set<Integer> ranges) {
+        while (true) {
+            final UUID id = accountService.create().getId();
+            if (ranges.contains(leases.rangeOf(id))) {
+                return id;
+            }
+        }
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + port;
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.bank;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Keyed operations must not wait on a partition while their key claim holds a pooled connection.
+ */
+@SpringBootTest(properties = "bank.operation.mode=partitioned")
+class PartitionedIdempotencyTests extends IdempotencyTests {
+}
@@ -0,0 +1,64 @@
+package org.example.bank;
+
+import org.example.bank.model.Operation;
+import org.example.bank.repository.AccountBalanceRepository;
+import org.example.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.UUID;
+
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.example.bank.model.OperationType.TRANSFER;
+import static org.example.bank.model.OperationType.WITHDRAW;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Runs the whole consistency suite on single-writer partitions.
+ */
+@SpringBootTest(properties = "bank.operation.mode=partitioned")
+class PartitionedModeTests extends TestBankAccountApplicationTests {
+
+    @Autowired
+    private AccountService accountService;
+
+    @MockitoSpyBean
+    private AccountBalanceRepository balanceRepository;
+
+    @Test
+    void testBalanceChangedByAnotherWriterIsReloaded() {
+        final UUID source = accountService.create().getId();
+        final UUID target = accountService.create().getId();
+        accountService.makeOperation(new Operation(source, DEPOSIT, 2000));
+        accountService.makeOperation(new Operation(target, DEPOSIT, 100));
+
+        // transfers bypass the partitions, the target's in-memory balance is now stale
+        accountService.makeOperation(new Operation(source, TRANSFER, 1500, target));
+
+        assertEquals(200, accountService.makeOperation(new Operation(target, WITHDRAW, 1400)).balance());
+        assertEquals(200, accountService.getById(target).balance());
+    }
+
+    /**
+     * A failed load fails its batch only, the partition keeps serving.
+     */
+    @Test
+    @Timeout(value = 30, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void testPartitionSurvivesFailedLoad() {
+        final UUID accountId = accountService.create().getId();
+        doThrow(new DataAccessResourceFailureException("Connection is not available"))
+                .doCallRealMethod()
+                .when(balanceRepository).findAllById(any());
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> accountService.makeOperation(new Operation(accountId, DEPOSIT, 100)));
+        assertEquals(100, accountService.makeOperation(new Operation(accountId, DEPOSIT, 100)).balance());
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.bank;
+
+import org.example.bank.model.Account;
+import org.example.bank.model.Operation;
+import org.example.bank.model.OperationResult;
+import org.example.bank.model.exception.NotEnoughException;
+import org.example.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.example.bank.model.OperationType.WITHDRAW;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RejectionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    void testInvalidAmountIsRejectedBeforeLookup() throws Exception {
+        // the account does not exist, a 400 instead of a 404 shows the database was not asked
+        mockMvc.perform(post("/api/v1/wallet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":\"" + UUID.randomUUID() + "\",\"type\":\"DEPOSIT\",\"amount\":-1.0}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.statusCode").value(400));
+    }
+
+    @Test
+    void testMissingFieldIsRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/wallet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":\"" + UUID.randomUUID() + "\",\"amount\":1.0}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Operation field type is required"));
+    }
+
+    @Test
+    void testOverdraftIsReturnedAsRejection() throws Exception {
+        final Account createdAccount = accountService.create();
+        accountService.makeOperation(new Operation(createdAccount.getId(), DEPOSIT, 1000));
+
+        final OperationResult result = accountService.tryOperation(new Operation(createdAccount.getId(), WITHDRAW, 2000));
+        assertFalse(result.isApplied());
+        assertInstanceOf(NotEnoughException.class, result.rejection());
+        assertEquals(0, result.rejection().getStackTrace().length);
+
+        mockMvc.perform(post("/api/v1/wallet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":\"" + createdAccount.getId() + "\",\"type\":\"WITHDRAW\",\"amount\":20.0}"))
+                .andExpect(status().isBadRequest());
+        assertEquals(1000, accountService.getById(createdAccount.getId()).balance());
+    }
+
+    @Test
+    void testAmountBelowMinorUnitIsRejected() throws Exception {
+        final Account createdAccount = accountService.create();
+
+        mockMvc.perform(post("/api/v1/wallet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":\"" + createdAccount.getId() + "\",\"type\":\"DEPOSIT\",\"amount\":1.005}"))
+                .andExpect(status().isBadRequest());
+        assertEquals(0, accountService.getById(createdAccount.getId()).balance());
+    }
+
+    @Test
+    void testStripingIsRejectedWithoutRouting() throws Exception {
+        final Account createdAccount = accountService.create();
+        accountService.makeOperation(new Operation(createdAccount.getId(), DEPOSIT, 1000));
+
+        // the row would be zeroed while operations keep using it
+        mockMvc.perform(post("/api/v1/wallet/" + createdAccount.getId() + "/stripes").param("count", "4"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/api/v1/wallet/" + createdAccount.getId() + "/stripes"))
+                .andExpect(status().isBadRequest());
+        accountService.makeOperation(new Operation(createdAccount.getId(), WITHDRAW, 1000));
+        assertEquals(0, accountService.getById(createdAccount.getId()).balance());
+    }
+}
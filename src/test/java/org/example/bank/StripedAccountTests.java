@@ -0,0 +1,169 @@
+package org.example.bank;
+
+import org.example.bank.model.Account;
+import org.example.bank.model.AccountView;
+import org.example.bank.model.BatchResult;
+import org.example.bank.model.Operation;
+import org.example.bank.model.exception.NotEnoughException;
+import org.example.bank.model.exception.StripeCountException;
+import org.example.bank.service.AccountService;
+import org.example.bank.service.StripedAccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.example.bank.model.BatchItemResult.Status.APPLIED;
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.example.bank.model.OperationType.TRANSFER;
+import static org.example.bank.model.OperationType.WITHDRAW;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "bank.operation.stripes.enabled=true")
+class StripedAccountTests {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private StripedAccountService stripedAccountService;
+
+    @Test
+    void testStripeKeepsBalance() {
+        final UUID accountId = accountService.create().getId();
+        accountService.makeOperation(new Operation(accountId, DEPOSIT, 10000));
+
+        final Account stripedAccount = stripedAccountService.stripe(accountId, 4);
+
+        assertEquals(4, stripedAccount.getStripeCount());
+        assertEquals(10000, stripedAccount.getBalance());
+        assertEquals(10000, accountService.getById(accountId).balance());
+    }
+
+    @Test
+    void testFailStripeWhenCountInvalid() {
+        final UUID accountId = accountService.create().getId();
+
+        assertThrows(StripeCountException.class, () -> stripedAccountService.stripe(accountId, 1));
+    }
+
+    /**
+     * Every stripe holds 25, so withdrawing 90 has to sweep over several stripes.
+     */
+    @Test
+    void testWithdrawSweepsStripes() {
+        final UUID accountId = accountService.create().getId();
+        accountService.makeOperation(new Operation(accountId, DEPOSIT, 10000));
+        stripedAccountService.stripe(accountId, 4);
+
+        final AccountView accountAfterOperation = accountService.makeOperation(new Operation(accountId, WITHDRAW, 9000));
+
+        assertEquals(1000, accountAfterOperation.balance());
+        assertThrows(NotEnoughException.class,
+                () -> accountService.makeOperation(new Operation(accountId, WITHDRAW, 1050)));
+    }
+
+    /**
+     * A transfer credits the row of the striped account, a withdrawal has to sweep the row along with the stripes.
+     */
+    @Test
+    void testWithdrawSweepsRowAndStripes() {
+        final UUID accountId = accountService.create().getId();
+        final UUID source = accountService.create().getId();
+        accountService.makeOperation(new Operation(accountId, DEPOSIT, 1000));
+        accountService.makeOperation(new Operation(source, DEPOSIT, 500));
+        stripedAccountService.stripe(accountId, 4);
+        accountService.makeOperation(new Operation(source, TRANSFER, 500, accountId));
+
+        final AccountView accountAfterOperation = accountService.makeOperation(new Operation(accountId, WITHDRAW, 1300));
+
+        assertEquals(200, accountAfterOperation.balance());
+        assertThrows(NotEnoughException.class,
+                () -> accountService.makeOperation(new Operation(accountId, WITHDRAW, 250)));
+    }
+
+    @Test
+    void testTransferFromStripedAccount() {
+        final UUID source = accountService.create().getId();
+        final UUID target = accountService.create().getId();
+        accountService.makeOperation(new Operation(source, DEPOSIT, 1000));
+        stripedAccountService.stripe(source, 4);
+
+        final AccountView sourceAfterOperation = accountService.makeOperation(new Operation(source, TRANSFER, 800, target));
+
+        assertEquals(200, sourceAfterOperation.balance());
+        assertEquals(200, accountService.getById(source).balance());
+        assertEquals(800, accountService.getById(target).balance());
+        assertThrows(NotEnoughException.class,
+                () -> accountService.makeOperation(new Operation(source, TRANSFER, 250, target)));
+    }
+
+    @Test
+    void testBatchWithdrawFromStripedAccount() {
+        final UUID accountId = accountService.create().getId();
+        accountService.makeOperation(new Operation(accountId, DEPOSIT, 1000));
+        stripedAccountService.stripe(accountId, 4);
+
+        final BatchResult result = accountService.makeOperations(List.of(
+                new Operation(accountId, DEPOSIT, 100),
+                new Operation(accountId, WITHDRAW, 700),
+                new Operation(accountId, WITHDRAW, 350)
+        ), true);
+
+        assertTrue(result.getCommitted());
+        assertEquals(APPLIED, result.getItems().get(2).getStatus());
+        assertEquals(50, result.getItems().get(2).getBalance());
+        assertEquals(50, accountService.getById(accountId).balance());
+        // every part stays non-negative, so a withdrawal from a single stripe cannot overdraw the account
+        assertThrows(NotEnoughException.class,
+                () -> accountService.makeOperation(new Operation(accountId, WITHDRAW, 100)));
+    }
+
+    @Test
+    void testUnstripeFoldsStripes() {
+        final UUID accountId = accountService.create().getId();
+        stripedAccountService.stripe(accountId, 8);
+        accountService.makeOperation(new Operation(accountId, DEPOSIT, 1250));
+        accountService.makeOperation(new Operation(accountId, DEPOSIT, 750));
+
+        final Account plainAccount = stripedAccountService.unstripe(accountId);
+
+        assertEquals(0, plainAccount.getStripeCount());
+        assertEquals(2000, plainAccount.getBalance());
+        assertEquals(2000, accountService.getById(accountId).balance());
+    }
+
+    /**
+     * Three threads deposit and withdraw concurrently on a striped account.
+     * Withdrawals are smaller than the starting balance so every one of them can succeed.
+     */
+    @Test
+    void testConcurrentOperationsOnStripedAccount() throws InterruptedException {
+        final UUID accountId = accountService.create().getId();
+        accountService.makeOperation(new Operation(accountId, DEPOSIT, 1000000));
+        stripedAccountService.stripe(accountId, 4);
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 500; j++) {
+                    accountService.makeOperation(new Operation(accountId, DEPOSIT, 200));
+                    accountService.makeOperation(new Operation(accountId, WITHDRAW, 300));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        final long correctBalance = 1000000 + 3 * 500 * (200 - 300);
+        final AccountView accountAfterOperation = accountService.getById(accountId);
+        assertEquals(correctBalance, accountAfterOperation.balance());
+    }
+}
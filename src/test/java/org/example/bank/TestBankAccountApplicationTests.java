@@ -2,6 +2,7 @@ package org.example.bank;
 
 import lombok.extern.slf4j.Slf4j;
 import org.example.bank.model.Account;
+import org.example.bank.model.AccountView;
 import org.example.bank.model.Operation;
 import org.example.bank.model.OperationType;
 import org.example.bank.model.exception.AmountValueException;
@@ -9,6 +10,7 @@ import org.example.bank.model.exception.NotEnoughException;
 import org.example.bank.service.AccountService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.util.ArrayList;
@@ -21,7 +23,6 @@ import static org.example.bank.model.OperationType.DEPOSIT;
 import static org.example.bank.model.OperationType.WITHDRAW;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @Slf4j
@@ -31,36 +32,39 @@ class TestBankAccountApplicationTests {
     @Autowired
     private AccountService accountService;
 
+    @Value("${bank.operation.mode}")
+    private String operationMode;
+
     @Test
     void testCreateAndGetById() {
         final Account createdAccount = accountService.create();
-        final Account foundAccount = accountService.getById(createdAccount.getId());
-        log.info("Created id {}, found id {}", createdAccount.getId(), foundAccount.getId());
-        assertEquals(createdAccount.getBalance(), foundAccount.getBalance());
+        final AccountView foundAccount = accountService.getById(createdAccount.getId());
+        log.info("Created id {}, found id {}", createdAccount.getId(), foundAccount.id());
+        assertEquals(createdAccount.getBalance(), foundAccount.balance());
     }
 
     @Test
     void testDeposit() {
         final Account createdAccount = accountService.create();
 
-        final Double incomeMoneyAmount = 20.5;
+        final long incomeMoneyAmount = 2050;
 
         final Operation depositOperation = new Operation();
         depositOperation.setAccountId(createdAccount.getId());
         depositOperation.setAmount(incomeMoneyAmount);
         depositOperation.setType(DEPOSIT);
 
-        final Account accountAfterOperation = accountService.makeOperation(depositOperation);
+        final AccountView accountAfterOperation = accountService.makeOperation(depositOperation);
 
-        final Double correctBalance = createdAccount.getBalance() + incomeMoneyAmount;
-        assertEquals(correctBalance, accountAfterOperation.getBalance());
+        final long correctBalance = createdAccount.getBalance() + incomeMoneyAmount;
+        assertEquals(correctBalance, accountAfterOperation.balance());
     }
 
     @Test
     void testFailDepositWhenAmountInvalid() {
             final Account createdAccount = accountService.create();
 
-        final Double incomeMoneyAmount = -1.0;
+        final long incomeMoneyAmount = -100;
 
         final Operation depositOperation = new Operation();
         depositOperation.setAccountId(createdAccount.getId());
@@ -69,18 +73,18 @@ class TestBankAccountApplicationTests {
 
         assertThrows(AmountValueException.class, () -> accountService.makeOperation(depositOperation));
 
-        final Double correctBalance = createdAccount.getBalance();
+        final long correctBalance = createdAccount.getBalance();
 
-        final Account accountAfterOperation = accountService.getById(createdAccount.getId());
-        assertEquals(correctBalance, accountAfterOperation.getBalance());
+        final AccountView accountAfterOperation = accountService.getById(createdAccount.getId());
+        assertEquals(correctBalance, accountAfterOperation.balance());
     }
 
     @Test
     void testWithdraw() {
         final Account createdAccount = accountService.create();
 
-        final Double incomeMoneyAmount = 20.5;
-        final Double outcomeMoneyAmount = 12.5;
+        final long incomeMoneyAmount = 2050;
+        final long outcomeMoneyAmount = 1250;
 
         // deposit before
         final Operation depositOperation = new Operation();
@@ -96,18 +100,18 @@ class TestBankAccountApplicationTests {
         withdrawOperation.setType(OperationType.WITHDRAW);
         accountService.makeOperation(withdrawOperation);
 
-        final Double correctBalance = createdAccount.getBalance() + incomeMoneyAmount - outcomeMoneyAmount;
+        final long correctBalance = createdAccount.getBalance() + incomeMoneyAmount - outcomeMoneyAmount;
 
-        final Account accountAfterOperation = accountService.getById(createdAccount.getId());
-        assertEquals(correctBalance, accountAfterOperation.getBalance());
+        final AccountView accountAfterOperation = accountService.getById(createdAccount.getId());
+        assertEquals(correctBalance, accountAfterOperation.balance());
     }
 
     @Test
     void testFailWithdrawWhenNotEnough() {
         final Account createdAccount = accountService.create();
 
-        final Double incomeMoneyAmount = 11.5;
-        final Double outComeMoneyAmount = 12.5;
+        final long incomeMoneyAmount = 1150;
+        final long outComeMoneyAmount = 1250;
 
         // deposit before
         final Operation depositOperation = new Operation();
@@ -125,10 +129,10 @@ class TestBankAccountApplicationTests {
         assertThrows(NotEnoughException.class, () -> accountService.makeOperation(withdrawOperation));
 
         // correctBalance count only income
-        final Double correctBalance = createdAccount.getBalance() + incomeMoneyAmount;
+        final long correctBalance = createdAccount.getBalance() + incomeMoneyAmount;
 
-        final Account accountAfterOperation = accountService.getById(createdAccount.getId());
-        assertEquals(correctBalance, accountAfterOperation.getBalance());
+        final AccountView accountAfterOperation = accountService.getById(createdAccount.getId());
+        assertEquals(correctBalance, accountAfterOperation.balance());
     }
 
     /**
@@ -169,16 +173,15 @@ class TestBankAccountApplicationTests {
         secondThread.join();
         thirdThread.join();
 
-        final Double correctBalance = countTotalBalance(new List[]{
+        final long correctBalance = countTotalBalance(new List[]{
                 firstThreadOperations,
                 secondThreadOperations,
                 thirdThreadOperations
         });
 
-        final Account accountAfterOperation = accountService.getById(createdAccount.getId());
+        final AccountView accountAfterOperation = accountService.getById(createdAccount.getId());
 
-        final Double acceptableError = 0.001;
-        assertTrue( Math.abs(correctBalance - accountAfterOperation.getBalance()) < acceptableError);
+        assertEquals(correctBalance, accountAfterOperation.balance());
     }
 
     /**
@@ -217,6 +220,7 @@ class TestBankAccountApplicationTests {
             }
         };
 
+        final long startedAt = System.nanoTime();
         firstThread.start();
         secondThread.start();
         thirdThread.start();
@@ -224,29 +228,29 @@ class TestBankAccountApplicationTests {
         firstThread.join();
         secondThread.join();
         thirdThread.join();
+        log.info("{} operations in {} mode took {} ms", 3 * operationPerThread, operationMode, (System.nanoTime() - startedAt) / 1_000_000);
 
-        final Double correctBalance = countTotalBalance(new List[]{
+        final long correctBalance = countTotalBalance(new List[]{
                 firstThreadOperations,
                 secondThreadOperations,
                 thirdThreadOperations
         });
 
-        final Account accountAfterOperation = accountService.getById(createdAccount.getId());
+        final AccountView accountAfterOperation = accountService.getById(createdAccount.getId());
 
-        final Double acceptableError = 0.001;
-        log.info("Expected {}, actual id {}", correctBalance, accountAfterOperation.getBalance());
-        assertTrue( Math.abs(correctBalance - accountAfterOperation.getBalance()) < acceptableError);
+        log.info("Expected {}, actual id {}", correctBalance, accountAfterOperation.balance());
+        assertEquals(correctBalance, accountAfterOperation.balance());
     }
 
-    private Double countTotalBalance(List<Operation>[] array) {
+    private long countTotalBalance(List<Operation>[] array) {
         return Arrays.stream(array)
-                .mapToDouble(this::countBalance)
+                .mapToLong(this::countBalance)
                 .sum();
     }
 
-    private Double countBalance(List<Operation> operations) {
+    private long countBalance(List<Operation> operations) {
         return operations.stream()
-                .mapToDouble(op -> op.getType() == OperationType.DEPOSIT ? op.getAmount() : -op.getAmount())
+                .mapToLong(op -> op.getType() == OperationType.DEPOSIT ? op.getAmount() : -op.getAmount())
                 .sum();
     }
 
@@ -254,16 +258,16 @@ class TestBankAccountApplicationTests {
         final Random random = new Random(SEED + num);
 
         final List<Operation> operations = new ArrayList<>(operationCount);
-        Double balance = 0.0;
+        long balance = 0;
 
-        operations.add(new Operation(accountId, DEPOSIT, 10.0));
+        operations.add(new Operation(accountId, DEPOSIT, 1000));
 
         for (int i = 1; i < operationCount; i++) {
             // DEPOSIT occurs 4 times more often to avoid not enough, 0.2 - WITHDRAW, 0.8 - DEPOSIT
             final OperationType operationType = random.nextDouble() + 0.3 > 0.5 ? DEPOSIT : WITHDRAW;
             // little percent to avoid overflow
             final Double tmpPercent = random.nextDouble() * 0.01 + 0.01;
-            final Double amount = tmpPercent * 0.01 * balance + 1;
+            final long amount = Math.round(tmpPercent * 0.01 * balance) + 100;
 
             operations.add(new Operation(accountId, operationType, amount));
 
@@ -275,46 +279,46 @@ class TestBankAccountApplicationTests {
 
     private List<Operation> getFirstThreadOperations(UUID accountId) {
         return List.of(
-                new Operation(accountId, DEPOSIT, 12.5),
-                new Operation(accountId, DEPOSIT, 20.1),
-                new Operation(accountId, DEPOSIT, 1.01),
-                new Operation(accountId, DEPOSIT, 0.76),
-                new Operation(accountId, DEPOSIT, 12.4),
-                new Operation(accountId, WITHDRAW, 5.5),
-                new Operation(accountId, WITHDRAW, 1.07),
-                new Operation(accountId, DEPOSIT, 1.11),
-                new Operation(accountId, DEPOSIT, 68.0),
-                new Operation(accountId, WITHDRAW, 32.1)
+                new Operation(accountId, DEPOSIT, 1250),
+                new Operation(accountId, DEPOSIT, 2010),
+                new Operation(accountId, DEPOSIT, 101),
+                new Operation(accountId, DEPOSIT, 76),
+                new Operation(accountId, DEPOSIT, 1240),
+                new Operation(accountId, WITHDRAW, 550),
+                new Operation(accountId, WITHDRAW, 107),
+                new Operation(accountId, DEPOSIT, 111),
+                new Operation(accountId, DEPOSIT, 6800),
+                new Operation(accountId, WITHDRAW, 3210)
         );
     }
 
     private List<Operation> getSecondThreadOperations(UUID accountId) {
         return List.of(
-                new Operation(accountId, DEPOSIT, 1.5),
-                new Operation(accountId, DEPOSIT, 6.1),
-                new Operation(accountId, DEPOSIT, 5.01),
-                new Operation(accountId, WITHDRAW, 0.76),
-                new Operation(accountId, DEPOSIT, 12.4),
-                new Operation(accountId, DEPOSIT, 5.5),
-                new Operation(accountId, WITHDRAW, 1.07),
-                new Operation(accountId, WITHDRAW, 1.11),
-                new Operation(accountId, WITHDRAW, 1.01),
-                new Operation(accountId, WITHDRAW, 2.4)
+                new Operation(accountId, DEPOSIT, 150),
+                new Operation(accountId, DEPOSIT, 610),
+                new Operation(accountId, DEPOSIT, 501),
+                new Operation(accountId, WITHDRAW, 76),
+                new Operation(accountId, DEPOSIT, 1240),
+                new Operation(accountId, DEPOSIT, 550),
+                new Operation(accountId, WITHDRAW, 107),
+                new Operation(accountId, WITHDRAW, 111),
+                new Operation(accountId, WITHDRAW, 101),
+                new Operation(accountId, WITHDRAW, 240)
         );
     }
 
     private List<Operation> getThirdThreadOperations(UUID accountId) {
         return List.of(
-                new Operation(accountId, DEPOSIT, 3.5),
-                new Operation(accountId, WITHDRAW, 1.1),
-                new Operation(accountId, DEPOSIT, 5.01),
-                new Operation(accountId, WITHDRAW, 0.1),
-                new Operation(accountId, WITHDRAW, 2.47),
-                new Operation(accountId, DEPOSIT, 5.5),
-                new Operation(accountId, WITHDRAW, 1.07),
-                new Operation(accountId, WITHDRAW, 2.11),
-                new Operation(accountId, WITHDRAW, 1.01),
-                new Operation(accountId, DEPOSIT, 2.4)
+                new Operation(accountId, DEPOSIT, 350),
+                new Operation(accountId, WITHDRAW, 110),
+                new Operation(accountId, DEPOSIT, 501),
+                new Operation(accountId, WITHDRAW, 10),
+                new Operation(accountId, WITHDRAW, 247),
+                new Operation(accountId, DEPOSIT, 550),
+                new Operation(accountId, WITHDRAW, 107),
+                new Operation(accountId, WITHDRAW, 211),
+                new Operation(accountId, WITHDRAW, 101),
+                new Operation(accountId, DEPOSIT, 240)
         );
     }
 
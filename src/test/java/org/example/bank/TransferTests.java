@@ -0,0 +1,108 @@
+package org.example.bank;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.bank.model.AccountView;
+import org.example.bank.model.Operation;
+import org.example.bank.model.exception.NotEnoughException;
+import org.example.bank.model.exception.TransferTargetException;
+import org.example.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.example.bank.model.OperationType.TRANSFER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Slf4j
+class TransferTests {
+    private final static Integer SEED = 42;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    void testTransfer() {
+        final UUID source = accountService.create().getId();
+        final UUID target = accountService.create().getId();
+        accountService.makeOperation(new Operation(source, DEPOSIT, 2050));
+
+        final AccountView sourceAfterOperation = accountService.makeOperation(new Operation(source, TRANSFER, 1250, target));
+
+        assertEquals(800, sourceAfterOperation.balance());
+        assertEquals(800, accountService.getById(source).balance());
+        assertEquals(1250, accountService.getById(target).balance());
+    }
+
+    @Test
+    void testFailTransferWhenNotEnough() {
+        final UUID source = accountService.create().getId();
+        final UUID target = accountService.create().getId();
+        accountService.makeOperation(new Operation(source, DEPOSIT, 1150));
+
+        assertThrows(NotEnoughException.class,
+                () -> accountService.makeOperation(new Operation(source, TRANSFER, 1250, target)));
+
+        assertEquals(1150, accountService.getById(source).balance());
+        assertEquals(0, accountService.getById(target).balance());
+    }
+
+    @Test
+    void testFailTransferToSameAccount() {
+        final UUID source = accountService.create().getId();
+        accountService.makeOperation(new Operation(source, DEPOSIT, 1150));
+
+        assertThrows(TransferTargetException.class,
+                () -> accountService.makeOperation(new Operation(source, TRANSFER, 100, source)));
+    }
+
+    /**
+     * Three threads transfer A->B and three transfer B->A, 1000 times each, with random amounts.
+     * Opposite transfers must not deadlock and the sum of both balances must not change.
+     * @throws InterruptedException
+     */
+    @Test
+    void testConcurrentTransfersInBothDirections() throws InterruptedException {
+        final UUID first = accountService.create().getId();
+        final UUID second = accountService.create().getId();
+        accountService.makeOperation(new Operation(first, DEPOSIT, 100000));
+        accountService.makeOperation(new Operation(second, DEPOSIT, 100000));
+
+        final AtomicInteger failures = new AtomicInteger();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            final UUID source = i % 2 == 0 ? first : second;
+            final UUID target = i % 2 == 0 ? second : first;
+            final Random random = new Random(SEED + i);
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    try {
+                        accountService.makeOperation(new Operation(source, TRANSFER, random.nextInt(500) + 1, target));
+                    } catch (NotEnoughException e) {
+                        // an expected business outcome, not a deadlock
+                    } catch (RuntimeException e) {
+                        log.error("Transfer failed", e);
+                        failures.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, failures.get());
+        final long total = accountService.getById(first).balance() + accountService.getById(second).balance();
+        assertEquals(200000, total);
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.bank;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Jobs in write-behind mode. The flusher is slow, so the jobs find most balances still in memory only.
+ */
+@SpringBootTest(properties = {
+        "bank.job.chunk-size=4",
+        "bank.job.parallelism=3",
+        "bank.operation.mode=write-behind",
+        "bank.operation.write-behind.directory=target/wal/${random.uuid}",
+        "bank.operation.write-behind.segment-size=64KB",
+        "bank.operation.write-behind.flush-interval=5s"
+})
+class WriteBehindBalanceJobTests extends BalanceJobTests {
+}
@@ -0,0 +1,40 @@
+package org.example.bank;
+
+import org.example.bank.model.Operation;
+import org.example.bank.service.AccountService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.example.bank.model.OperationType.DEPOSIT;
+
+/**
+ * Child process of {@link WriteBehindRecoveryTests}: creates a wallet and deposits into it until it is killed,
+ * printing a line for every acknowledged deposit. Arguments are Spring Boot command line properties.
+ */
+public class WriteBehindCrashTarget {
+    static final String ACCOUNT = "ACCOUNT ";
+    static final String ACK = "ACK";
+    static final long AMOUNT = 100;
+
+    public static void main(String[] args) {
+        final ConfigurableApplicationContext context = new SpringApplicationBuilder(BankApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+        final AccountService accountService = context.getBean(AccountService.class);
+        final UUID id = accountService.create().getId();
+        // the wallet itself has to survive the kill, the deposits are what the test is about
+        context.getBean(JdbcTemplate.class).execute("checkpoint sync");
+        System.out.println(ACCOUNT + id);
+        System.out.flush();
+
+        while (true) {
+            accountService.makeOperation(new Operation(id, DEPOSIT, AMOUNT));
+            System.out.println(ACK);
+            System.out.flush();
+        }
+    }
+}
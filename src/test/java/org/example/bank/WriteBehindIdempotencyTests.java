@@ -0,0 +1,15 @@
+package org.example.bank;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Keyed operations must not be acknowledged from the write-ahead log while the caller's key claim can still roll back.
+ */
+@SpringBootTest(properties = {
+        "bank.operation.mode=write-behind",
+        "bank.operation.write-behind.directory=target/wal/${random.uuid}",
+        "bank.operation.write-behind.segment-size=64KB",
+        "bank.operation.write-behind.flush-interval=5ms"
+})
+class WriteBehindIdempotencyTests extends IdempotencyTests {
+}
@@ -0,0 +1,39 @@
+package org.example.bank;
+
+import org.example.bank.model.exception.StripesUnsupportedException;
+import org.example.bank.service.AccountService;
+import org.example.bank.service.StripedAccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the whole consistency suite with operations acknowledged from the write-ahead log and flushed behind.
+ */
+@SpringBootTest(properties = {
+        "bank.operation.mode=write-behind",
+        "bank.operation.write-behind.directory=target/wal/${random.uuid}",
+        "bank.operation.write-behind.segment-size=64KB",
+        "bank.operation.write-behind.flush-interval=5ms",
+        "bank.operation.stripes.enabled=true"
+})
+class WriteBehindModeTests extends TestBankAccountApplicationTests {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private StripedAccountService stripedAccountService;
+
+    @Test
+    void testStripingIsRejected() {
+        final UUID accountId = accountService.create().getId();
+
+        assertThrows(StripesUnsupportedException.class, () -> stripedAccountService.stripe(accountId, 4));
+        assertThrows(StripesUnsupportedException.class, () -> stripedAccountService.unstripe(accountId));
+    }
+}
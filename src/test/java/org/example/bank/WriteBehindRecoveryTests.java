@@ -0,0 +1,168 @@
+package org.example.bank;
+
+import org.example.bank.model.AccountView;
+import org.example.bank.model.Operation;
+import org.example.bank.service.AccountService;
+import org.example.bank.wal.WalRecord;
+import org.example.bank.wal.WriteAheadLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.example.bank.model.OperationType.DEPOSIT;
+import static org.example.bank.model.OperationType.WITHDRAW;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindRecoveryTests {
+    private static final int ACKS_BEFORE_KILL = 2000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecoverStopsAtTornRecord() throws IOException {
+        final Path log = directory.resolve("wal");
+        final UUID accountId = UUID.randomUUID();
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.RECORD_SIZE * 4L)) {
+            assertTrue(wal.recover(0).isEmpty());
+            for (int i = 1; i <= 10; i++) {
+                assertEquals(i, wal.append(accountId, DEPOSIT, i, i * 10L));
+            }
+            wal.sync(10);
+            assertEquals(10, wal.takeDurable(100).size());
+        }
+        // records 9 and 10 are in the third segment, tear the last one
+        try (RandomAccessFile file = new RandomAccessFile(log.resolve(String.format("%020d.wal", 9)).toFile(), "rw")) {
+            file.seek(WriteAheadLog.RECORD_SIZE + 20);
+            file.write(0xFF);
+        }
+
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.RECORD_SIZE * 4L)) {
+            final List<WalRecord> records = wal.recover(4);
+            assertEquals(List.of(5L, 6L, 7L, 8L, 9L), records.stream().map(WalRecord::lsn).toList());
+            assertEquals(new WalRecord(9, accountId, DEPOSIT, 9, 90), records.get(4));
+            assertEquals(10, wal.append(accountId, WITHDRAW, 1, 89));
+
+            wal.truncate(8);
+            assertEquals(List.of(String.format("%020d.wal", 9), String.format("%020d.wal", 10)), segments(log));
+        }
+    }
+
+    /**
+     * A restart leaves the old segment partly filled and appends to a new one; both are still the log afterwards.
+     */
+    @Test
+    void testRecoverAfterRestartKeepsNewSegment() throws IOException {
+        final Path log = directory.resolve("wal");
+        final UUID accountId = UUID.randomUUID();
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.RECORD_SIZE * 4L)) {
+            wal.recover(0);
+            wal.append(accountId, DEPOSIT, 1, 1);
+            wal.append(accountId, DEPOSIT, 2, 3);
+            wal.sync(2);
+        }
+
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.RECORD_SIZE * 4L)) {
+            assertEquals(2, wal.recover(0).size());
+            assertEquals(3, wal.append(accountId, DEPOSIT, 3, 6));
+            assertEquals(4, wal.append(accountId, WITHDRAW, 1, 5));
+            wal.sync(4);
+            // no checkpoint before the crash
+        }
+
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.RECORD_SIZE * 4L)) {
+            final List<WalRecord> records = wal.recover(0);
+            assertEquals(List.of(1L, 2L, 3L, 4L), records.stream().map(WalRecord::lsn).toList());
+            assertEquals(new WalRecord(4, accountId, WITHDRAW, 1, 5), records.get(3));
+            assertEquals(5, wal.append(accountId, DEPOSIT, 5, 10));
+        }
+        assertEquals(List.of(String.format("%020d.wal", 1), String.format("%020d.wal", 3),
+                String.format("%020d.wal", 5)), segments(log));
+    }
+
+    /**
+     * Kills a process that is depositing in write-behind mode and restarts the application on its database and
+     * log: every acknowledged deposit is in the balance, plus at most the one that was in flight.
+     */
+    @Test
+    @Timeout(value = 3, unit = TimeUnit.MINUTES)
+    void testAcknowledgedOperationsSurviveKill() throws Exception {
+        final String[] args = {
+                "--spring.datasource.url=jdbc:h2:file:" + directory.resolve("bank").toAbsolutePath()
+                        + ";WRITE_DELAY=0",
+                "--bank.operation.mode=write-behind",
+                "--bank.operation.write-behind.directory=" + directory.resolve("wal").toAbsolutePath(),
+                // small segments and a busy flusher, so the kill can land in a roll or a truncation
+                "--bank.operation.write-behind.segment-size=4KB",
+                "--bank.operation.write-behind.flush-interval=1ms",
+                "--bank.operation.write-behind.flush-batch-size=50"
+        };
+        final List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                WriteBehindCrashTarget.class.getName()));
+        command.addAll(List.of(args));
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        UUID accountId = null;
+        long acked = 0;
+        final List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(WriteBehindCrashTarget.ACCOUNT)) {
+                    accountId = UUID.fromString(line.substring(WriteBehindCrashTarget.ACCOUNT.length()));
+                } else if (line.equals(WriteBehindCrashTarget.ACK)) {
+                    if (++acked == ACKS_BEFORE_KILL) {
+                        // SIGKILL through the handle, Process.destroyForcibly would also close the output unread
+                        process.toHandle().destroyForcibly();
+                    }
+                } else if (output.size() < 200) {
+                    output.add(line);
+                }
+            }
+        } finally {
+            process.destroyForcibly().waitFor();
+        }
+        assertNotNull(accountId, () -> String.join("\n", output));
+        assertTrue(acked >= ACKS_BEFORE_KILL, () -> String.join("\n", output));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            final AccountService accountService = context.getBean(AccountService.class);
+            final long balance = accountService.getById(accountId).balance();
+            assertTrue(balance >= acked * WriteBehindCrashTarget.AMOUNT
+                            && balance <= (acked + 1) * WriteBehindCrashTarget.AMOUNT,
+                    "balance " + balance + " after " + acked + " acknowledged deposits");
+
+            final AccountView afterRestart = accountService.makeOperation(new Operation(accountId, WITHDRAW, balance));
+            assertEquals(0, afterRestart.balance());
+        }
+    }
+
+    private static List<String> segments(Path log) throws IOException {
+        try (Stream<Path> files = Files.list(log)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+}